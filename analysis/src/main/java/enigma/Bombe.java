@@ -0,0 +1,806 @@
+package enigma;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static enigma.EnigmaException.*;
+
+/**
+ * A known-plaintext attack in the manner of the Turing-Welchman Bombe.
+ * A crib, a guess at part of the plaintext, is placed against the
+ * ciphertext wherever no letter of it would encrypt to itself, which an
+ * Enigma never does.  Each placement gives a menu: a graph on the
+ * letters with an edge from each crib letter to the ciphertext letter
+ * under it, labelled by its position.  Whatever the plugboard S, the
+ * rotors and reflector at position i (the core C_i) satisfy
+ * S(b) = C_i(S(a)) for each such edge (a, b), so a guess at S(a) for
+ * one letter determines S for everything connected to it; and as S is
+ * an involution, S(a) = y also gives S(y) = a (the diagonal board).  A
+ * rotor order and start setting is a stop when some guess for the most
+ * connected letter yields no contradiction.  Usage:
+ *
+ *     java enigma.Bombe CONFIG CIPHERTEXT CRIB [OFFSET]
+ *
+ * prints the stops for the crib CRIB against the ciphertext in the file
+ * CIPHERTEXT under the configuration CONFIG, with the crib at OFFSET (an
+ * index among the ciphertext's letters) or, by default, at every
+ * possible placement.
+ *
+ * <p>Rotor orders are those of KeySearch, with the ring settings held
+ * fixed.  The work is divided among ForkJoin tasks, one for each rotor
+ * order and setting of the rotor in slot 1, and stops are passed on as
+ * they are found.  Each task first tabulates the core of every setting
+ * of its remaining rotors as a byte matrix, so that testing a start
+ * setting costs only stepping to each position of the menus and table
+ * lookups.
+ *
+ * @author Aishik Bhattacharyya
+ */
+public final class Bombe {
+
+    /**
+     * Print the stops for the crib described by ARGS (see the class
+     * comment) on the standard output as they are found.
+     */
+    public static void main(String... args) {
+        try {
+            if (args.length < 3 || args.length > 4) {
+                throw error("Usage: java enigma.Bombe CONFIG CIPHERTEXT CRIB "
+                            + "[OFFSET]");
+            }
+            Machine machine = ConfigReader.readConfig(args[0]);
+            String text;
+            try {
+                text = Files.readString(Paths.get(args[1]));
+            } catch (IOException excp) {
+                throw error("could not open %s", args[1]);
+            }
+            int offset = args.length > 3 ? Integer.parseInt(args[3]) : -1;
+            Bombe bombe = new Bombe(machine);
+            AtomicLong count = new AtomicLong();
+            long start = System.nanoTime();
+            int placements = bombe.search(text, args[2], offset, stop -> {
+                count.incrementAndGet();
+                System.out.println(stop);
+            });
+            System.out.printf("%d stops in %d settings at %d placements "
+                              + "in %.3f s%n", count.get(), bombe.starts(),
+                              placements,
+                              (System.nanoTime() - start) * 1e-9);
+            return;
+        } catch (NumberFormatException excp) {
+            System.err.printf("Error: bad number: %s%n", excp.getMessage());
+        } catch (EnigmaException excp) {
+            System.err.printf("Error: %s%n", excp.getMessage());
+        }
+        System.exit(1);
+    }
+
+    /**
+     * A Bombe for the rotor orders available to MACHINE, whose rotors are
+     * not disturbed.  The ring settings are initially all at the first
+     * character of the alphabet.
+     */
+    Bombe(Machine machine) {
+        _machine = machine;
+        _alphabet = machine.alphabet();
+        _size = _alphabet.size();
+        _numRotors = machine.numRotors();
+        _rings = String.valueOf(_alphabet.toChar(0)).repeat(_numRotors - 1);
+        _orders = KeySearch.rotorOrders(machine);
+        if (_orders.isEmpty()) {
+            throw error("no rotor orders to search");
+        }
+        if (_size > MAX_SIZE) {
+            throw error("alphabet too large for a crib search");
+        }
+        long states = 1;
+        for (int k = 2; k < _numRotors; k += 1) {
+            states *= _size;
+            if (states * _size > MAX_TABLE) {
+                throw error("too many rotors for a crib search");
+            }
+        }
+        _states = (int) states;
+    }
+
+    /**
+     * Use RINGS, as in a settings line, as the ring settings of every
+     * rotor order.
+     */
+    void setRings(String rings) {
+        _rings = rings;
+    }
+
+    /**
+     * Return the number of rotor orders and start settings a search
+     * tries at each placement of the crib.
+     */
+    long starts() {
+        return (long) _orders.size() * _states * _size;
+    }
+
+    /**
+     * Return the offsets in CIPHER at which CRIB can lie: those at which
+     * no letter of CRIB is the same as the letter of CIPHER under it.
+     */
+    static List<Integer> placements(int[] cipher, int[] crib) {
+        List<Integer> result = new ArrayList<>();
+        for (int p = 0; p + crib.length <= cipher.length; p += 1) {
+            int i;
+            for (i = 0; i < crib.length; i += 1) {
+                if (cipher[p + i] == crib[i]) {
+                    break;
+                }
+            }
+            if (i == crib.length) {
+                result.add(p);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Search for stops for CRIB against CIPHERTEXT, passing each to STOPS
+     * as it is found, possibly from several threads at once.  The crib
+     * is tried only at OFFSET if OFFSET is not negative, and otherwise at
+     * every possible placement.  Characters not in the alphabet are
+     * ignored, and offsets count only those that are.  Returns the number
+     * of placements tried.
+     */
+    int search(String ciphertext, String crib, int offset,
+               Consumer<? super Stop> stops) {
+        int[] cipher = letters(ciphertext);
+        int[] plain = letters(crib);
+        if (plain.length == 0) {
+            throw error("empty crib");
+        }
+        List<Integer> places = placements(cipher, plain);
+        if (offset >= 0) {
+            if (!places.contains(offset)) {
+                throw error("crib cannot lie at %d", offset);
+            }
+            places = List.of(offset);
+        } else if (places.isEmpty()) {
+            throw error("crib fits nowhere in the ciphertext");
+        }
+        Menu[] menus = new Menu[places.size()];
+        int end = 0;
+        for (int i = 0; i < menus.length; i += 1) {
+            menus[i] = new Menu(cipher, plain, places.get(i), _size);
+            end = Math.max(end, menus[i].end);
+        }
+        int length = end;
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < _orders.size(); i += 1) {
+            Order order = new Order(i);
+            for (int first = 0; first < _size; first += 1) {
+                int setting = first;
+                tasks.add(ForkJoinTask.adapt(() ->
+                    search(order, setting, menus, length, stops)));
+            }
+        }
+        ForkJoinTask.invokeAll(tasks);
+        return menus.length;
+    }
+
+    /**
+     * Return the indices of the characters of TEXT that are in my
+     * alphabet.
+     */
+    private int[] letters(String text) {
+        return text.chars().map(c -> _alphabet.toInt((char) c))
+            .filter(c -> c >= 0).toArray();
+    }
+
+    /**
+     * Test MENUS, which use positions 0 .. END - 1, at every start
+     * setting of ORDER that has FIRST in slot 1, passing stops to STOPS.
+     */
+    private void search(Order order, int first, Menu[] menus, int end,
+                        Consumer<? super Stop> stops) {
+        EnigmaEngine engine = order.engine.copy();
+        byte[] table = new byte[(_states + end) * _size];
+        int[] settings = new int[_numRotors];
+        settings[1] = first;
+        fill(order, engine, settings, table);
+        int[] rows = new int[end];
+        int[] steckers = new int[_size];
+        int[] queue = new int[_size];
+        Arrays.fill(steckers, -1);
+        for (int s = 0; s < _states; s += 1) {
+            setSettings(settings, s);
+            if (order.next != null) {
+                for (int j = 0, state = s; j < end; j += 1) {
+                    state = order.next[state];
+                    rows[j] = state * _size;
+                }
+            } else {
+                engine.set(settings);
+                for (int j = 0; j < end; j += 1) {
+                    engine.step();
+                    rows[j] = row(engine, first, table, j);
+                }
+            }
+            for (Menu menu : menus) {
+                for (int x = 0; x < _size; x += 1) {
+                    if (menu.loop != null
+                        && around(menu.loop, table, rows, x) != x) {
+                        continue;
+                    }
+                    if (consistent(menu, table, rows, x, steckers, queue)) {
+                        stops.accept(new Stop(order.index, settings.clone(),
+                                              menu.offset,
+                                              steckers.clone()));
+                        Arrays.fill(steckers, -1);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Fill the first _states rows of TABLE with the cores of ORDER at
+     * each setting of slots 2 .. numRotors - 1, with SETTINGS[1] in slot
+     * 1, using ENGINE, a copy of ORDER's engine.  The core at each
+     * setting of the fast rotor F is F^-1 I F for an involution I that
+     * depends only on the slower rotors, so only I is found with the
+     * engine.
+     */
+    private void fill(Order order, EnigmaEngine engine, int[] settings,
+                      byte[] table) {
+        if (_numRotors == 2) {
+            engine.set(settings);
+            for (int c = 0; c < _size; c += 1) {
+                table[c] = (byte) engine.core(c);
+            }
+            return;
+        }
+        int[] inner = new int[_size];
+        int[] forward = order.forward, backward = order.backward;
+        for (int s = 0; s < _states; s += _size) {
+            setSettings(settings, s);
+            engine.set(settings);
+            for (int y = 0; y < _size; y += 1) {
+                inner[y] = forward[engine.core(backward[y])];
+            }
+            for (int p = 0; p < _size; p += 1) {
+                int base = p * _size, row = (s + p) * _size;
+                for (int c = 0; c < _size; c += 1) {
+                    table[row + c] =
+                        (byte) backward[base + inner[forward[base + c]]];
+                }
+            }
+        }
+    }
+
+    /**
+     * Set SETTINGS[2 ..] to the settings numbered STATE, whose digits
+     * are the settings of slots 2 .. numRotors - 1.
+     */
+    private void setSettings(int[] settings, int state) {
+        for (int k = _numRotors - 1; k > 1; k -= 1) {
+            settings[k] = state % _size;
+            state /= _size;
+        }
+    }
+
+    /**
+     * Return the number of the settings of slots 2 .. numRotors - 1 in
+     * ENGINE.
+     */
+    private int state(EnigmaEngine engine) {
+        int result = 0;
+        for (int k = 2; k < _numRotors; k += 1) {
+            result = result * _size + engine.setting(k);
+        }
+        return result;
+    }
+
+    /**
+     * Return the index in TABLE of the core of ENGINE's current settings,
+     * computing it into TABLE's scratch row for position J if the rotor
+     * in slot 1 has moved from FIRST.
+     */
+    private int row(EnigmaEngine engine, int first, byte[] table, int j) {
+        if (engine.setting(1) != first) {
+            int result = (_states + j) * _size;
+            for (int c = 0; c < _size; c += 1) {
+                table[result + c] = (byte) engine.core(c);
+            }
+            return result;
+        }
+        return state(engine) * _size;
+    }
+
+    /**
+     * Return the result of converting X by the cores at the positions in
+     * LOOP, in order, where the core at position J starts at index
+     * ROWS[J] of TABLE.
+     */
+    private static int around(int[] loop, byte[] table, int[] rows, int x) {
+        for (int pos : loop) {
+            x = table[rows[pos] + x] & 0xff;
+        }
+        return x;
+    }
+
+    /**
+     * Return true iff guessing that MENU's test letter is steckered to X
+     * leads to no contradiction, where the core at position J starts at
+     * index ROWS[J] of TABLE.  STECKERS, initially all -1, is left
+     * holding the partner of each letter deduced if so, and all -1
+     * otherwise.  QUEUE is scratch space of one entry per letter.
+     */
+    private static boolean consistent(Menu menu, byte[] table, int[] rows,
+                                      int x, int[] steckers, int[] queue) {
+        int[] start = menu.start, letters = menu.letters,
+            positions = menu.positions;
+        int tail = assign(menu.test, x, steckers, queue, 0);
+        for (int head = 0; head < tail; head += 1) {
+            int a = queue[head];
+            int y = steckers[a];
+            for (int e = start[a]; e < start[a + 1]; e += 1) {
+                int z = table[rows[positions[e]] + y] & 0xff;
+                int t = assign(letters[e], z, steckers, queue, tail);
+                if (t < 0) {
+                    for (int i = 0; i < tail; i += 1) {
+                        steckers[queue[i]] = -1;
+                    }
+                    return false;
+                }
+                tail = t;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Record in STECKERS that A and Y are steckered together, adding
+     * them to QUEUE, which holds TAIL letters, if they are new.  Returns
+     * the new length of QUEUE, or -1 if either is already steckered to
+     * something else.
+     */
+    private static int assign(int a, int y, int[] steckers, int[] queue,
+                              int tail) {
+        if (steckers[a] == y) {
+            return tail;
+        }
+        if (steckers[a] >= 0 || steckers[y] >= 0) {
+            return -1;
+        }
+        steckers[a] = y;
+        steckers[y] = a;
+        queue[tail] = a;
+        tail += 1;
+        if (y != a) {
+            queue[tail] = y;
+            tail += 1;
+        }
+        return tail;
+    }
+
+    /**
+     * A rotor order prepared for searching: an engine for it, the
+     * conversions of its fast rotor at each setting, and the successor
+     * of each setting of slots 2 .. numRotors - 1.
+     */
+    private final class Order {
+
+        /**
+         * The rotor order numbered INDEX, with my ring settings and no
+         * plugboard.
+         */
+        Order(int index) {
+            this.index = index;
+            Machine m = _machine.copy();
+            m.insertRotors(_orders.get(index));
+            m.setRotors(String.valueOf(_alphabet.toChar(0))
+                        .repeat(_numRotors - 1));
+            m.setRings(_rings);
+            m.setPlugboard("");
+            engine = m.engine();
+            Rotor fast = m.getRotor(_numRotors - 1);
+            forward = new int[_size * _size];
+            backward = new int[_size * _size];
+            for (int p = 0; p < _size; p += 1) {
+                fast.set(p);
+                for (int c = 0; c < _size; c += 1) {
+                    forward[p * _size + c] = fast.convertForward(c);
+                    backward[p * _size + c] = fast.convertBackward(c);
+                }
+            }
+            next = successors();
+        }
+
+        /**
+         * Return the number of the settings of slots 2 .. numRotors - 1
+         * that follows each, or null if stepping can move the rotor in
+         * slot 1, so that the successor depends on it too.
+         */
+        private int[] successors() {
+            EnigmaEngine probe = engine.copy();
+            int[] settings = new int[_numRotors];
+            int[] result = new int[_states];
+            for (int s = 0; s < _states; s += 1) {
+                setSettings(settings, s);
+                probe.set(settings);
+                probe.step();
+                if (probe.setting(1) != 0) {
+                    return null;
+                }
+                result[s] = state(probe);
+            }
+            return result;
+        }
+
+        /**
+         * My index in _orders.
+         */
+        final int index;
+
+        /**
+         * An engine for me.
+         */
+        final EnigmaEngine engine;
+
+        /**
+         * Entry P * size + C is the conversion of C forward through my
+         * fast rotor at setting P.
+         */
+        final int[] forward;
+
+        /**
+         * As for forward, but backward through the fast rotor.
+         */
+        final int[] backward;
+
+        /**
+         * The successor of each setting of slots 2 .. numRotors - 1, or
+         * null.
+         */
+        final int[] next;
+    }
+
+    /**
+     * The menu of a placement of a crib: for each letter, its neighbours
+     * and the positions of the edges to them, in the form of adjacency
+     * lists packed into arrays.
+     */
+    private static final class Menu {
+
+        /**
+         * The menu of CRIB placed at OFFSET in CIPHER, on an alphabet of
+         * SIZE letters.
+         */
+        Menu(int[] cipher, int[] crib, int offset, int size) {
+            this.offset = offset;
+            end = offset + crib.length;
+            start = new int[size + 1];
+            for (int i = 0; i < crib.length; i += 1) {
+                start[crib[i] + 1] += 1;
+                start[cipher[offset + i] + 1] += 1;
+            }
+            for (int c = 0; c < size; c += 1) {
+                start[c + 1] += start[c];
+            }
+            letters = new int[2 * crib.length];
+            positions = new int[2 * crib.length];
+            int[] next = Arrays.copyOf(start, size);
+            for (int i = 0; i < crib.length; i += 1) {
+                int a = crib[i], b = cipher[offset + i];
+                letters[next[a]] = b;
+                positions[next[a]] = offset + i;
+                next[a] += 1;
+                letters[next[b]] = a;
+                positions[next[b]] = offset + i;
+                next[b] += 1;
+            }
+            findLoop(hub(size), size);
+        }
+
+        /**
+         * Return the letter with the most edges in the component of the
+         * menu with the most edges, on an alphabet of SIZE letters.
+         */
+        private int hub(int size) {
+            int[] component = new int[size];
+            Arrays.fill(component, -1);
+            int best = 0, bestEdges = -1;
+            int[] stack = new int[size];
+            for (int c = 0; c < size; c += 1) {
+                if (component[c] >= 0) {
+                    continue;
+                }
+                int edges = 0, top, hub = c;
+                component[c] = c;
+                stack[0] = c;
+                top = 1;
+                while (top > 0) {
+                    top -= 1;
+                    int a = stack[top];
+                    edges += degree(a);
+                    if (degree(a) > degree(hub)) {
+                        hub = a;
+                    }
+                    for (int e = start[a]; e < start[a + 1]; e += 1) {
+                        if (component[letters[e]] < 0) {
+                            component[letters[e]] = c;
+                            stack[top] = letters[e];
+                            top += 1;
+                        }
+                    }
+                }
+                if (edges > bestEdges) {
+                    best = hub;
+                    bestEdges = edges;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Set test and loop from a short cycle in the menu found by a
+         * breadth-first search from HUB, on an alphabet of SIZE letters,
+         * or make HUB the test letter if its component has no cycle.
+         */
+        private void findLoop(int hub, int size) {
+            int[] depth = new int[size];
+            int[] parent = new int[size];
+            int[] via = new int[size];
+            int[] queue = new int[size];
+            Arrays.fill(depth, -1);
+            depth[hub] = 0;
+            via[hub] = -1;
+            queue[0] = hub;
+            int tail = 1, length = Integer.MAX_VALUE;
+            int end0 = -1, end1 = -1, closing = -1;
+            for (int head = 0; head < tail; head += 1) {
+                int a = queue[head];
+                for (int e = start[a]; e < start[a + 1]; e += 1) {
+                    int b = letters[e];
+                    if (depth[b] < 0) {
+                        depth[b] = depth[a] + 1;
+                        parent[b] = a;
+                        via[b] = positions[e];
+                        queue[tail] = b;
+                        tail += 1;
+                    } else if (positions[e] != via[a]
+                               && depth[a] + depth[b] + 1 < length) {
+                        length = depth[a] + depth[b] + 1;
+                        end0 = a;
+                        end1 = b;
+                        closing = positions[e];
+                    }
+                }
+            }
+            test = hub;
+            if (closing < 0) {
+                return;
+            }
+            int[] up0 = new int[size], up1 = new int[size];
+            int n0 = 0, n1 = 0;
+            while (end0 != end1) {
+                if (depth[end0] >= depth[end1]) {
+                    up0[n0] = via[end0];
+                    n0 += 1;
+                    end0 = parent[end0];
+                } else {
+                    up1[n1] = via[end1];
+                    n1 += 1;
+                    end1 = parent[end1];
+                }
+            }
+            test = end0;
+            loop = new int[n0 + 1 + n1];
+            for (int i = 0; i < n0; i += 1) {
+                loop[i] = up0[n0 - 1 - i];
+            }
+            loop[n0] = closing;
+            System.arraycopy(up1, 0, loop, n0 + 1, n1);
+        }
+
+        /**
+         * Return the number of edges at letter A.
+         */
+        private int degree(int a) {
+            return start[a + 1] - start[a];
+        }
+
+        /**
+         * Offset of the crib in the ciphertext.
+         */
+        final int offset;
+
+        /**
+         * One more than the last position in the menu.
+         */
+        final int end;
+
+        /**
+         * The letter whose stecker is guessed.
+         */
+        int test;
+
+        /**
+         * The positions of the edges of a cycle in the menu from test
+         * back to itself, in order, or null if there is none.  A guess
+         * that test is steckered to X can hold only if X is a fixed point
+         * of the composition of the cores at these positions.
+         */
+        int[] loop;
+
+        /**
+         * The edges at letter A are numbered start[A] .. start[A+1] - 1.
+         */
+        final int[] start;
+
+        /**
+         * The letter at the other end of each edge.
+         */
+        final int[] letters;
+
+        /**
+         * The position of each edge.
+         */
+        final int[] positions;
+    }
+
+    /**
+     * A rotor order and start setting at which a crib placement gives no
+     * contradiction, with the plugboard connections it implies.
+     */
+    final class Stop {
+
+        /**
+         * The stop at SETTINGS of rotor order number ORDER for the crib at
+         * OFFSET, with STECKERS[A] the partner of A, or -1 if unknown.
+         */
+        private Stop(int order, int[] settings, int offset,
+                     int[] steckers) {
+            _order = order;
+            _settings = settings;
+            _offset = offset;
+            _steckers = steckers;
+        }
+
+        /**
+         * Return the names of my rotors, reflector first.
+         */
+        String[] rotors() {
+            return _orders.get(_order).clone();
+        }
+
+        /**
+         * Return my rotor settings, as in a settings line.
+         */
+        String setting() {
+            char[] result = new char[_numRotors - 1];
+            for (int k = 1; k < _numRotors; k += 1) {
+                result[k - 1] = _alphabet.toChar(_settings[k]);
+            }
+            return new String(result);
+        }
+
+        /**
+         * Return the offset of the crib.
+         */
+        int offset() {
+            return _offset;
+        }
+
+        /**
+         * Return the plugboard connections deduced, as cycles.  Letters
+         * deduced to be unsteckered, and those not deduced, are omitted.
+         */
+        String plugboard() {
+            StringBuilder result = new StringBuilder();
+            for (int a = 0; a < _size; a += 1) {
+                int b = _steckers[a];
+                if (b > a) {
+                    if (result.length() > 0) {
+                        result.append(' ');
+                    }
+                    result.append('(').append(_alphabet.toChar(a))
+                        .append(_alphabet.toChar(b)).append(')');
+                }
+            }
+            return result.toString();
+        }
+
+        /**
+         * Return a settings line for me, as in the input to Main, with
+         * the plugboard connections deduced.
+         */
+        String settingsLine() {
+            StringBuilder result = new StringBuilder("*");
+            for (String name : rotors()) {
+                result.append(' ').append(name);
+            }
+            result.append(' ').append(setting()).append(' ').append(_rings);
+            String plugboard = plugboard();
+            if (!plugboard.isEmpty()) {
+                result.append(' ').append(plugboard);
+            }
+            return result.toString();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("at %d: %s", _offset, settingsLine());
+        }
+
+        /**
+         * Index of my rotor order.
+         */
+        private final int _order;
+
+        /**
+         * My start settings, by slot.
+         */
+        private final int[] _settings;
+
+        /**
+         * Offset of the crib.
+         */
+        private final int _offset;
+
+        /**
+         * The partner of each letter on the plugboard, or -1.
+         */
+        private final int[] _steckers;
+    }
+
+    /**
+     * Largest alphabet whose letters fit in the byte tables.
+     */
+    private static final int MAX_SIZE = 256;
+
+    /**
+     * Largest number of entries in a task's table of cores.
+     */
+    private static final long MAX_TABLE = 1 << 26;
+
+    /**
+     * The machine whose available rotors are searched.
+     */
+    private final Machine _machine;
+
+    /**
+     * The machine's alphabet.
+     */
+    private final Alphabet _alphabet;
+
+    /**
+     * Size of _alphabet.
+     */
+    private final int _size;
+
+    /**
+     * Number of rotor slots.
+     */
+    private final int _numRotors;
+
+    /**
+     * The rotor orders searched.
+     */
+    private final List<String[]> _orders;
+
+    /**
+     * Number of settings of the rotors in slots 2 .. numRotors - 1.
+     */
+    private final int _states;
+
+    /**
+     * Ring settings used for every rotor order.
+     */
+    private String _rings;
+}
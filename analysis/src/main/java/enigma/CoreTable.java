@@ -0,0 +1,112 @@
+package enigma;
+
+import static enigma.EnigmaException.*;
+
+/**
+ * The cores of a rotor stack, the permutations made by its rotors and
+ * reflector without the plugboard, at each of the first few positions
+ * of a message from some start setting, as a byte matrix.  The
+ * conversion of the character at position i under plugboard P is then
+ * P C_i P, for the core C_i, found with three lookups, so that trying
+ * many plugboards on one start setting costs no work in the rotors.
+ * Tables do not change once made, and may be shared between threads.
+ *
+ * @author Aishik Bhattacharyya
+ */
+final class CoreTable {
+
+    /**
+     * The cores of the first LENGTH positions of a message converted by
+     * MACHINE from its current settings.  MACHINE is not changed.
+     */
+    CoreTable(Machine machine, int length) {
+        if (machine.alphabet().size() > MAX_SIZE) {
+            throw error("alphabet too large for a core table");
+        }
+        Machine m = machine.copy();
+        m.setPlugboard("");
+        EnigmaEngine engine = m.engine();
+        _size = engine.size();
+        _length = length;
+        _cores = new byte[length * _size];
+        for (int i = 0; i < length; i += 1) {
+            engine.step();
+            for (int c = 0; c < _size; c += 1) {
+                _cores[i * _size + c] = (byte) engine.core(c);
+            }
+        }
+    }
+
+    /**
+     * Return the number of positions I cover.
+     */
+    int length() {
+        return _length;
+    }
+
+    /**
+     * Return the size of my alphabet.
+     */
+    int size() {
+        return _size;
+    }
+
+    /**
+     * Return the number of bytes I occupy, roughly.
+     */
+    long bytes() {
+        return _cores.length + OVERHEAD;
+    }
+
+    /**
+     * Return the conversion of C by the core at position I.
+     */
+    int core(int i, int c) {
+        return _cores[i * _size + c] & 0xff;
+    }
+
+    /**
+     * Return the conversion of C at position I with the plugboard PLUG,
+     * an involution on alphabet indices.
+     */
+    int convert(int[] plug, int i, int c) {
+        return plug[_cores[i * _size + plug[c]] & 0xff];
+    }
+
+    /**
+     * Set OUT[0 .. LENGTH-1] to the conversion of IN[0 .. LENGTH-1] from
+     * position 0 with the plugboard PLUG.  LENGTH may not exceed
+     * length().
+     */
+    void convert(int[] plug, int[] in, int[] out, int length) {
+        for (int i = 0; i < length; i += 1) {
+            out[i] = plug[_cores[i * _size + plug[in[i]]] & 0xff];
+        }
+    }
+
+    /**
+     * Largest alphabet whose letters fit in the table.
+     */
+    static final int MAX_SIZE = 256;
+
+    /**
+     * Bytes allowed for the objects around the matrix.
+     */
+    private static final int OVERHEAD = 64;
+
+    /**
+     * Size of the alphabet.
+     */
+    private final int _size;
+
+    /**
+     * Number of positions.
+     */
+    private final int _length;
+
+    /**
+     * Entry I * _size + C is the conversion of C by the core at position
+     * I.
+     */
+    private final byte[] _cores;
+}
@@ -0,0 +1,143 @@
+package enigma;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static enigma.EnigmaException.*;
+
+/**
+ * CoreTables kept for reuse, keyed by rotor order, settings and ring
+ * settings, and discarded least recently used first once together they
+ * exceed a number of bytes.  A table is reused for any message no longer
+ * than it.  A cache may be shared between threads; tables are made
+ * outside its lock, so two threads asking at once for the same missing
+ * table may both make it.
+ *
+ * @author Aishik Bhattacharyya
+ */
+final class CoreTableCache {
+
+    /**
+     * A cache holding tables of at most MAXBYTES bytes in all.
+     */
+    CoreTableCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw error("cache size must be positive");
+        }
+        _maxBytes = maxBytes;
+    }
+
+    /**
+     * Return a table of the cores of at least the first LENGTH positions
+     * of a message converted by MACHINE from its current settings,
+     * making it if need be.  MACHINE is not changed.
+     */
+    CoreTable get(Machine machine, int length) {
+        String key = key(machine);
+        synchronized (this) {
+            CoreTable table = _tables.get(key);
+            if (table != null && table.length() >= length) {
+                _hits += 1;
+                return table;
+            }
+            _misses += 1;
+        }
+        CoreTable table = new CoreTable(machine, length);
+        synchronized (this) {
+            CoreTable old = _tables.get(key);
+            if (old != null && old.length() >= length) {
+                return old;
+            }
+            if (old != null) {
+                _tables.remove(key);
+                _bytes -= old.bytes();
+            }
+            if (table.bytes() <= _maxBytes) {
+                _tables.put(key, table);
+                _bytes += table.bytes();
+                evict();
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Return the number of tables held.
+     */
+    synchronized int size() {
+        return _tables.size();
+    }
+
+    /**
+     * Return the number of bytes of the tables held.
+     */
+    synchronized long bytes() {
+        return _bytes;
+    }
+
+    /**
+     * Return the number of requests answered by a table held.
+     */
+    synchronized long hits() {
+        return _hits;
+    }
+
+    /**
+     * Return the number of requests for which a table was made.
+     */
+    synchronized long misses() {
+        return _misses;
+    }
+
+    /**
+     * Discard the least recently used tables until those left fit in
+     * _maxBytes.
+     */
+    private void evict() {
+        Iterator<CoreTable> tables = _tables.values().iterator();
+        while (_bytes > _maxBytes) {
+            _bytes -= tables.next().bytes();
+            tables.remove();
+        }
+    }
+
+    /**
+     * Return the key of the rotors of MACHINE at their current settings.
+     */
+    private static String key(Machine machine) {
+        Alphabet alphabet = machine.alphabet();
+        StringBuilder result = new StringBuilder();
+        for (int k = 0; k < machine.numRotors(); k += 1) {
+            Rotor r = machine.getRotor(k);
+            if (r == null) {
+                throw error("no rotors inserted");
+            }
+            result.append(r.name()).append(' ')
+                .append(alphabet.toChar(r.setting()))
+                .append(alphabet.toChar(r.ringSetting())).append(' ');
+        }
+        return result.toString();
+    }
+
+    /**
+     * Most bytes of tables held.
+     */
+    private final long _maxBytes;
+
+    /**
+     * Tables held, least recently used first.
+     */
+    private final Map<String, CoreTable> _tables =
+        new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Bytes of the tables held.
+     */
+    private long _bytes;
+
+    /**
+     * Numbers of requests answered from and not from _tables.
+     */
+    private long _hits, _misses;
+}
@@ -0,0 +1,48 @@
+package enigma;
+
+/**
+ * A measure of how much a text resembles natural language, used to rank
+ * candidate decryptions: the higher the score, the more plausible the
+ * text.  Texts are given as indices in an alphabet.  An instance may keep
+ * scratch space between calls, so each thread uses its own.
+ *
+ * @author Aishik Bhattacharyya
+ */
+interface Fitness {
+
+    /**
+     * Return the fitness of TEXT[0 .. LENGTH-1].
+     */
+    double score(int[] text, int length);
+
+    /**
+     * Return the amount by which the fitness of TEXT[0 .. LENGTH-1] would
+     * increase if TEXT[POSITIONS[K]] were CHARS[K] for each K < COUNT.
+     * The positions are distinct and increasing, and TEXT is unchanged
+     * on return.  This implementation scores the whole text twice;
+     * measures that are sums over short stretches of the text can look
+     * at just those around the positions.
+     */
+    default double change(int[] text, int length, int[] positions,
+                          int[] chars, int count) {
+        double before = score(text, length);
+        exchange(text, positions, chars, count);
+        double after = score(text, length);
+        exchange(text, positions, chars, count);
+        return after - before;
+    }
+
+    /**
+     * Exchange TEXT[POSITIONS[K]] and CHARS[K] for each K < COUNT.  Doing
+     * this twice restores both arrays, so implementations of change may
+     * use it to try the new characters in place, as the default does.
+     */
+    static void exchange(int[] text, int[] positions, int[] chars,
+                         int count) {
+        for (int k = 0; k < count; k += 1) {
+            int c = text[positions[k]];
+            text[positions[k]] = chars[k];
+            chars[k] = c;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package enigma;
+
+import java.util.Arrays;
+
+/**
+ * The index of coincidence of a text: the probability that two of its
+ * characters chosen at random are the same.  It is about 1/size for
+ * random text and well above that for natural language (about 0.066 for
+ * English in 26 letters), and does not depend on which letters are which,
+ * so it needs no statistics of the language.
+ *
+ * @author Aishik Bhattacharyya
+ */
+final class IndexOfCoincidence implements Fitness {
+
+    /**
+     * A measure of texts in an alphabet of SIZE characters.
+     */
+    IndexOfCoincidence(int size) {
+        _counts = new int[size];
+    }
+
+    @Override
+    public double score(int[] text, int length) {
+        if (length < 2) {
+            return 0;
+        }
+        Arrays.fill(_counts, 0);
+        for (int i = 0; i < length; i += 1) {
+            _counts[text[i]] += 1;
+        }
+        long pairs = 0;
+        for (int n : _counts) {
+            pairs += (long) n * (n - 1);
+        }
+        return (double) pairs / ((long) length * (length - 1));
+    }
+
+    /**
+     * Number of occurrences of each character in the last text scored.
+     */
+    private final int[] _counts;
+}
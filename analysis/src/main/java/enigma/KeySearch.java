@@ -0,0 +1,464 @@
+package enigma;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+import static enigma.EnigmaException.*;
+
+/**
+ * An exhaustive search for the rotor order and settings that decrypt a
+ * ciphertext, ranking each candidate decryption by a Fitness.  Rotor
+ * orders are drawn from a Machine's available rotors: a reflector in
+ * slot 0, non-moving rotors in the slots without pawls and moving rotors
+ * in those with pawls.  Every setting of every order is tried, with the
+ * ring settings and plugboard held fixed.  Usage:
+ *
+ *     java enigma.KeySearch CONFIG CIPHERTEXT [K [NGRAMS]]
+ *
+ * prints the K (default 10) best keys for the ciphertext in the file
+ * CIPHERTEXT under the configuration CONFIG, scored by the NGramModel in
+ * the file NGRAMS or, by default, by index of coincidence.
+ *
+ * <p>The work is divided among ForkJoin tasks, one for each rotor order
+ * and setting of the rotor in slot 1.  Each order is compiled into an
+ * EnigmaEngine once; each task converts with its own copy of it, into
+ * its own buffer, and keeps its best keys in arrays, so that trying a
+ * key allocates nothing.
+ *
+ * @author Aishik Bhattacharyya
+ */
+public final class KeySearch {
+
+    /**
+     * Print the best keys for the ciphertext described by ARGS (see the
+     * class comment) on the standard output.
+     */
+    public static void main(String... args) {
+        try {
+            if (args.length < 2 || args.length > 4) {
+                throw error("Usage: java enigma.KeySearch CONFIG CIPHERTEXT "
+                            + "[K [NGRAMS]]");
+            }
+            Machine machine = ConfigReader.readConfig(args[0]);
+            String text;
+            try {
+                text = Files.readString(Paths.get(args[1]));
+            } catch (IOException excp) {
+                throw error("could not open %s", args[1]);
+            }
+            int k = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+            int size = machine.alphabet().size();
+            Supplier<Fitness> fitness = () -> new IndexOfCoincidence(size);
+            if (args.length > 3) {
+                NGramModel model = NGramModel.load(Paths.get(args[3]),
+                                                   machine.alphabet());
+                fitness = () -> model;
+            }
+            KeySearch search = new KeySearch(machine, fitness);
+            long start = System.nanoTime();
+            List<Candidate> best = search.search(text, k);
+            double seconds = (System.nanoTime() - start) * 1e-9;
+            System.out.printf("%d keys in %.3f s (%.0f keys/s)%n",
+                              search.keys(), seconds,
+                              search.keys() / seconds);
+            for (Candidate c : best) {
+                System.out.printf("%.5f  %s%n", c.score(), c.settingsLine());
+            }
+            return;
+        } catch (NumberFormatException excp) {
+            System.err.printf("Error: bad number: %s%n", excp.getMessage());
+        } catch (EnigmaException excp) {
+            System.err.printf("Error: %s%n", excp.getMessage());
+        }
+        System.exit(1);
+    }
+
+    /**
+     * A search over the rotor orders available to MACHINE, whose rotors
+     * are not disturbed, scoring candidates with Fitness objects made by
+     * FITNESS, one for each task.  The ring settings are initially all at
+     * the first character of the alphabet, and the plugboard is empty.
+     */
+    KeySearch(Machine machine, Supplier<? extends Fitness> fitness) {
+        _machine = machine;
+        _fitness = fitness;
+        _alphabet = machine.alphabet();
+        _size = _alphabet.size();
+        _numRotors = machine.numRotors();
+        _rings = String.valueOf(_alphabet.toChar(0)).repeat(_numRotors - 1);
+        _plugboard = "";
+        _orders = rotorOrders(machine);
+        if (_orders.isEmpty()) {
+            throw error("no rotor orders to search");
+        }
+        try {
+            long settings = 1;
+            for (int k = 1; k < _numRotors; k += 1) {
+                settings = Math.multiplyExact(settings, _size);
+            }
+            _settings = settings;
+            _keys = Math.multiplyExact(settings, _orders.size());
+        } catch (ArithmeticException excp) {
+            throw error("search space too large");
+        }
+    }
+
+    /**
+     * Use RINGS, as in a settings line, as the ring settings of every
+     * candidate.
+     */
+    void setRings(String rings) {
+        _rings = rings;
+    }
+
+    /**
+     * Use the plugboard given by CYCLES for every candidate.
+     */
+    void setPlugboard(String cycles) {
+        _plugboard = cycles;
+    }
+
+    /**
+     * Return the number of keys a search tries.
+     */
+    long keys() {
+        return _keys;
+    }
+
+    /**
+     * Return the rotor orders that MACHINE's rotors allow: lists of rotor
+     * names, a reflector first, then non-moving rotors in the slots
+     * without pawls, then moving rotors in those with pawls.
+     */
+    static List<String[]> rotorOrders(Machine machine) {
+        List<String> reflectors = new ArrayList<>();
+        List<String> fixed = new ArrayList<>();
+        List<String> moving = new ArrayList<>();
+        for (Rotor r : machine.allRotors()) {
+            if (r.reflecting()) {
+                reflectors.add(r.name());
+            } else if (r.rotates()) {
+                moving.add(r.name());
+            } else {
+                fixed.add(r.name());
+            }
+        }
+        int numRotors = machine.numRotors();
+        int pawled = Math.min(machine.numPawls(), numRotors - 1);
+        List<String[]> result = new ArrayList<>();
+        String[] order = new String[numRotors];
+        for (String reflector : reflectors) {
+            order[0] = reflector;
+            arrange(order, 1, numRotors - pawled, fixed, moving, result);
+        }
+        return result;
+    }
+
+    /**
+     * Add to RESULT every completion of ORDER[0 .. K-1] that fills the
+     * slots before FIRSTPAWL with distinct rotors from FIXED and the rest
+     * with distinct rotors from MOVING.
+     */
+    private static void arrange(String[] order, int k, int firstPawl,
+                                List<String> fixed, List<String> moving,
+                                List<String[]> result) {
+        if (k == order.length) {
+            result.add(order.clone());
+            return;
+        }
+        List<String> choices = k < firstPawl ? fixed : moving;
+        for (String name : choices) {
+            if (!Arrays.asList(order).subList(0, k).contains(name)) {
+                order[k] = name;
+                arrange(order, k + 1, firstPawl, fixed, moving, result);
+            }
+        }
+    }
+
+    /**
+     * Return the K best candidate keys for CIPHERTEXT, best first.  The
+     * characters of CIPHERTEXT not in the alphabet are ignored.
+     */
+    List<Candidate> search(String ciphertext, int k) {
+        if (k < 1) {
+            throw error("number of candidates must be positive");
+        }
+        int[] cipher = ciphertext.chars().map(c -> _alphabet.toInt((char) c))
+            .filter(c -> c >= 0).toArray();
+        if (cipher.length < 2) {
+            throw error("ciphertext too short");
+        }
+        List<Top> tops = new ArrayList<>();
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < _orders.size(); i += 1) {
+            EnigmaEngine engine = engine(_orders.get(i));
+            long base = i * _settings;
+            for (int first = 0; first < _size; first += 1) {
+                Top top = new Top(k);
+                tops.add(top);
+                long from = base + first * (_settings / _size);
+                int setting = first;
+                tasks.add(ForkJoinTask.adapt(() ->
+                    search(engine.copy(), setting, from, cipher, top)));
+            }
+        }
+        ForkJoinTask.invokeAll(tasks);
+
+        List<Candidate> result = new ArrayList<>();
+        for (Top top : tops) {
+            for (int j = 0; j < top.size; j += 1) {
+                result.add(new Candidate(top.scores[j], top.keys[j]));
+            }
+        }
+        result.sort(Comparator.comparingDouble(Candidate::score).reversed()
+                    .thenComparingLong(c -> c._key));
+        return new ArrayList<>(result.subList(0, Math.min(k,
+                                                          result.size())));
+    }
+
+    /**
+     * Return an engine for the rotors named ORDER with my ring settings
+     * and plugboard.
+     */
+    private EnigmaEngine engine(String[] order) {
+        Machine m = _machine.copy();
+        m.insertRotors(order);
+        m.setRotors(String.valueOf(_alphabet.toChar(0))
+                    .repeat(_numRotors - 1));
+        m.setRings(_rings);
+        m.setPlugboard(_plugboard);
+        return m.engine();
+    }
+
+    /**
+     * Try every setting of ENGINE's rotors with the rotor in slot 1 at
+     * FIRST, on CIPHER, recording the best in TOP.  FROM is the key of
+     * the first setting tried; keys increase by one from there, with the
+     * fast rotor's setting varying fastest.
+     */
+    private void search(EnigmaEngine engine, int first, long from,
+                        int[] cipher, Top top) {
+        Fitness fitness = _fitness.get();
+        int[] plain = new int[cipher.length];
+        int[] settings = new int[_numRotors];
+        settings[1] = first;
+        long key = from;
+        while (true) {
+            engine.set(settings);
+            for (int i = 0; i < cipher.length; i += 1) {
+                plain[i] = engine.convert(cipher[i]);
+            }
+            top.offer(fitness.score(plain, cipher.length), key);
+            key += 1;
+            int k = _numRotors - 1;
+            while (k > 1 && settings[k] == _size - 1) {
+                settings[k] = 0;
+                k -= 1;
+            }
+            if (k <= 1) {
+                return;
+            }
+            settings[k] += 1;
+        }
+    }
+
+    /**
+     * The best keys found by one task, kept in arrays so that offering a
+     * key allocates nothing.
+     */
+    private static final class Top {
+
+        /**
+         * A record of the best CAPACITY keys.
+         */
+        Top(int capacity) {
+            scores = new double[capacity];
+            keys = new long[capacity];
+        }
+
+        /**
+         * Record KEY, with SCORE, if it is among the best so far.  Keys
+         * must be offered in increasing order, so that among equal
+         * scores the lower key is kept.
+         */
+        void offer(double score, long key) {
+            if (size < scores.length) {
+                scores[size] = score;
+                keys[size] = key;
+                size += 1;
+                if (size == scores.length) {
+                    findWorst();
+                }
+                return;
+            }
+            if (score > scores[worst]) {
+                scores[worst] = score;
+                keys[worst] = key;
+                findWorst();
+            }
+        }
+
+        /**
+         * Set worst to the index of the lowest score, the latest among
+         * equals.
+         */
+        private void findWorst() {
+            worst = 0;
+            for (int j = 1; j < size; j += 1) {
+                if (scores[j] <= scores[worst]) {
+                    worst = j;
+                }
+            }
+        }
+
+        /**
+         * Scores of the keys kept.
+         */
+        final double[] scores;
+
+        /**
+         * The keys kept.
+         */
+        final long[] keys;
+
+        /**
+         * Number of keys kept.
+         */
+        int size;
+
+        /**
+         * Index of the worst key kept, once full.
+         */
+        int worst;
+    }
+
+    /**
+     * A key found by a search, with its score.
+     */
+    final class Candidate {
+
+        /**
+         * The candidate with number KEY and score SCORE.
+         */
+        private Candidate(double score, long key) {
+            _score = score;
+            _key = key;
+        }
+
+        /**
+         * Return the score of my decryption.
+         */
+        double score() {
+            return _score;
+        }
+
+        /**
+         * Return the names of my rotors, reflector first.
+         */
+        String[] rotors() {
+            return _orders.get((int) (_key / _settings)).clone();
+        }
+
+        /**
+         * Return my rotor settings, as in a settings line.
+         */
+        String setting() {
+            char[] result = new char[_numRotors - 1];
+            long code = _key % _settings;
+            for (int k = result.length - 1; k >= 0; k -= 1) {
+                result[k] = _alphabet.toChar((int) (code % _size));
+                code /= _size;
+            }
+            return new String(result);
+        }
+
+        /**
+         * Return a settings line for me, as in the input to Main.
+         */
+        String settingsLine() {
+            StringBuilder result = new StringBuilder("*");
+            for (String name : rotors()) {
+                result.append(' ').append(name);
+            }
+            result.append(' ').append(setting()).append(' ').append(_rings);
+            if (!_plugboard.isBlank()) {
+                result.append(' ').append(_plugboard.strip());
+            }
+            return result.toString();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.5f %s", _score, settingsLine());
+        }
+
+        /**
+         * My score.
+         */
+        private final double _score;
+
+        /**
+         * My number: my order's index times the number of settings, plus
+         * my settings as a number whose digits are the settings of slots
+         * 1 .. numRotors - 1.
+         */
+        private final long _key;
+    }
+
+    /**
+     * The machine whose available rotors are searched.
+     */
+    private final Machine _machine;
+
+    /**
+     * Makes the measure of each task's candidates.
+     */
+    private final Supplier<? extends Fitness> _fitness;
+
+    /**
+     * The machine's alphabet.
+     */
+    private final Alphabet _alphabet;
+
+    /**
+     * Size of _alphabet.
+     */
+    private final int _size;
+
+    /**
+     * Number of rotor slots.
+     */
+    private final int _numRotors;
+
+    /**
+     * The rotor orders searched.
+     */
+    private final List<String[]> _orders;
+
+    /**
+     * Number of settings of each order.
+     */
+    private final long _settings;
+
+    /**
+     * Number of keys in all.
+     */
+    private final long _keys;
+
+    /**
+     * Ring settings used for every key.
+     */
+    private String _rings;
+
+    /**
+     * Plugboard cycles used for every key.
+     */
+    private String _plugboard;
+}
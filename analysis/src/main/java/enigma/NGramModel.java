@@ -0,0 +1,411 @@
+package enigma;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static enigma.EnigmaException.*;
+
+/**
+ * A language model giving the log probabilities (base 10) of the n-grams
+ * of an alphabet, for n from 1 up to some order, as a Fitness.  A text's
+ * score is the sum of the log probabilities of all its n-grams of the
+ * order chosen, so that most of the ranking is done by the longest
+ * n-grams, as usual for Enigma.  Usage:
+ *
+ *     java enigma.NGramModel CONFIG CORPUS OUTPUT [ORDER]
+ *
+ * counts the n-grams, up to ORDER (default 4), of the text in the file
+ * CORPUS in the alphabet of the configuration CONFIG, and writes the
+ * tables to OUTPUT.  Characters not in the alphabet whose upper-case
+ * forms are in it are counted as those; others are skipped.
+ *
+ * <p>The tables are arrays of floats indexed directly by alphabet
+ * indices (the n-gram c1 ... cn is at c1 * size^(n-1) + ... + cn), held
+ * outside the Java heap: a loaded file is mapped into memory rather than
+ * read, so that loading takes no longer than reading the header.  The
+ * file holds
+ *
+ *     int MAGIC, int VERSION, int size, size chars (the alphabet),
+ *     int order, padding to a multiple of 4 bytes, then the tables for
+ *     n = 1 .. order, each of size^n floats,
+ *
+ * all big-endian.  A model never changes and keeps no scratch space, so
+ * one instance may serve any number of threads.
+ *
+ * @author Aishik Bhattacharyya
+ */
+public final class NGramModel implements Fitness {
+
+    /**
+     * Write the tables described by ARGS (see the class comment).
+     */
+    public static void main(String... args) {
+        try {
+            if (args.length < 3 || args.length > 4) {
+                throw error("Usage: java enigma.NGramModel CONFIG CORPUS "
+                            + "OUTPUT [ORDER]");
+            }
+            Alphabet alphabet = ConfigReader.readConfig(args[0]).alphabet();
+            String corpus;
+            try {
+                corpus = Files.readString(Paths.get(args[1]));
+            } catch (IOException excp) {
+                throw error("could not open %s", args[1]);
+            }
+            int order = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+            write(alphabet, corpus, order, Paths.get(args[2]));
+            long start = System.nanoTime();
+            NGramModel model = load(Paths.get(args[2]));
+            System.out.printf("order %d tables for %d characters, loaded "
+                              + "in %.3f ms%n", model.order(),
+                              model.alphabet().size(),
+                              (System.nanoTime() - start) * 1e-6);
+            return;
+        } catch (NumberFormatException excp) {
+            System.err.printf("Error: bad number: %s%n", excp.getMessage());
+        } catch (EnigmaException excp) {
+            System.err.printf("Error: %s%n", excp.getMessage());
+        }
+        System.exit(1);
+    }
+
+    /**
+     * Return the model of the n-grams up to ORDER of the characters of
+     * CORPUS in ALPHABET, held in memory outside the heap.
+     */
+    static NGramModel build(Alphabet alphabet, CharSequence corpus,
+                            int order) {
+        ByteBuffer data = encode(alphabet, corpus, order);
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.capacity());
+        direct.put(data).flip();
+        return new NGramModel(direct);
+    }
+
+    /**
+     * Write the model of the n-grams up to ORDER of the characters of
+     * CORPUS in ALPHABET to FILE.
+     */
+    static void write(Alphabet alphabet, CharSequence corpus, int order,
+                      Path file) {
+        ByteBuffer data = encode(alphabet, corpus, order);
+        try {
+            Files.write(file, data.array());
+        } catch (IOException excp) {
+            throw error("could not write %s", file);
+        }
+    }
+
+    /**
+     * Return the model written to FILE, mapped into memory.
+     */
+    static NGramModel load(Path file) {
+        try (FileChannel channel = FileChannel.open(file)) {
+            return new NGramModel(channel.map(FileChannel.MapMode.READ_ONLY,
+                                              0, channel.size()));
+        } catch (IOException excp) {
+            throw error("could not open %s", file);
+        }
+    }
+
+    /**
+     * Return the model written to FILE, which must be for ALPHABET.
+     */
+    static NGramModel load(Path file, Alphabet alphabet) {
+        NGramModel result = load(file);
+        if (!result.fits(alphabet)) {
+            throw error("%s is for a different alphabet", file);
+        }
+        return result;
+    }
+
+    /**
+     * Return the tables of the n-grams up to ORDER of the characters of
+     * CORPUS in ALPHABET, in the file format, in a heap buffer.
+     */
+    private static ByteBuffer encode(Alphabet alphabet, CharSequence corpus,
+                                     int order) {
+        int size = alphabet.size();
+        if (order < 1 || order > MAX_ORDER) {
+            throw error("order must be from 1 to %d", MAX_ORDER);
+        }
+        long entries = tableEntries(size, order);
+        int[] text = new int[corpus.length()];
+        int length = 0;
+        for (int i = 0; i < corpus.length(); i += 1) {
+            char ch = corpus.charAt(i);
+            int c = alphabet.toInt(ch);
+            if (c < 0) {
+                c = alphabet.toInt(Character.toUpperCase(ch));
+            }
+            if (c >= 0) {
+                text[length] = c;
+                length += 1;
+            }
+        }
+        if (length < order) {
+            throw error("corpus too short");
+        }
+        int header = header(size);
+        ByteBuffer result = ByteBuffer.allocate((int) (header + 4 * entries));
+        result.putInt(MAGIC).putInt(VERSION).putInt(size);
+        for (int c = 0; c < size; c += 1) {
+            result.putChar(alphabet.toChar(c));
+        }
+        result.putInt(order).position(header);
+        for (int n = 1; n <= order; n += 1) {
+            int cells = (int) Math.pow(size, n);
+            int[] counts = new int[cells];
+            int total = length - n + 1;
+            for (int i = 0; i < total; i += 1) {
+                counts[index(text, i, n, size)] += 1;
+            }
+            float floor = (float) Math.log10(FLOOR / total);
+            for (int g = 0; g < cells; g += 1) {
+                result.putFloat(counts[g] == 0 ? floor
+                                : (float) Math.log10((double) counts[g]
+                                                     / total));
+            }
+        }
+        return result.flip();
+    }
+
+    /**
+     * Return the number of table entries of a model of order ORDER for
+     * an alphabet of SIZE characters, if it is not too large.
+     */
+    private static long tableEntries(int size, int order) {
+        long result = 0, cells = 1;
+        for (int n = 1; n <= order; n += 1) {
+            cells *= size;
+            result += cells;
+            if (result > MAX_ENTRIES) {
+                throw error("n-gram tables too large");
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return the length of the header of a file for an alphabet of SIZE
+     * characters.
+     */
+    private static int header(int size) {
+        return (16 + 2 * size + 3) / 4 * 4;
+    }
+
+    /**
+     * Return the index of the N-gram TEXT[I .. I+N-1] in a table for an
+     * alphabet of SIZE characters.
+     */
+    private static int index(int[] text, int i, int n, int size) {
+        int result = 0;
+        for (int j = i; j < i + n; j += 1) {
+            result = result * size + text[j];
+        }
+        return result;
+    }
+
+    /**
+     * The model whose file contents are DATA.
+     */
+    private NGramModel(ByteBuffer data) {
+        try {
+            if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+                throw error("not an n-gram table file");
+            }
+            int size = data.getInt(8);
+            if (size <= 0 || size > (data.capacity() - 16) / 2) {
+                throw error("n-gram table file has a bad alphabet size");
+            }
+            char[] chars = new char[size];
+            for (int c = 0; c < size; c += 1) {
+                chars[c] = data.getChar(12 + 2 * c);
+            }
+            _alphabet = new Alphabet(new String(chars));
+            _size = size;
+            int order = data.getInt(12 + 2 * size);
+            if (order < 1 || order > MAX_ORDER) {
+                throw error("bad n-gram order");
+            }
+            long entries = tableEntries(size, order);
+            if (data.capacity() != header(size) + 4 * entries) {
+                throw error("n-gram table file has the wrong length");
+            }
+            _tables = new FloatBuffer[order + 1];
+            int offset = header(size);
+            for (int n = 1; n <= order; n += 1) {
+                int cells = (int) Math.pow(size, n);
+                _tables[n] = data.slice(offset, 4 * cells).asFloatBuffer();
+                offset += 4 * cells;
+            }
+            _order = order;
+            _table = _tables[order];
+        } catch (IndexOutOfBoundsException excp) {
+            throw error("n-gram table file truncated");
+        }
+    }
+
+    /**
+     * The model MODEL scoring by n-grams of order ORDER.
+     */
+    private NGramModel(NGramModel model, int order) {
+        _alphabet = model._alphabet;
+        _size = model._size;
+        _tables = model._tables;
+        _order = order;
+        _table = _tables[order];
+    }
+
+    /**
+     * Return the alphabet of my tables.
+     */
+    Alphabet alphabet() {
+        return _alphabet;
+    }
+
+    /**
+     * Return true iff ALPHABET has the same characters, in the same
+     * order, as mine, so that I can score texts in it.
+     */
+    boolean fits(Alphabet alphabet) {
+        if (alphabet.size() != _size) {
+            return false;
+        }
+        for (int c = 0; c < _size; c += 1) {
+            if (alphabet.toChar(c) != _alphabet.toChar(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return the order of the n-grams I score by.
+     */
+    int order() {
+        return _order;
+    }
+
+    /**
+     * Return the highest order of my tables.
+     */
+    int maxOrder() {
+        return _tables.length - 1;
+    }
+
+    /**
+     * Return a model sharing my tables that scores by n-grams of order
+     * ORDER.
+     */
+    NGramModel withOrder(int order) {
+        if (order < 1 || order > maxOrder()) {
+            throw error("no n-grams of order %d", order);
+        }
+        return new NGramModel(this, order);
+    }
+
+    /**
+     * Return the log probability of the N-gram TEXT[I .. I+N-1].
+     */
+    double logProbability(int[] text, int i, int n) {
+        if (n < 1 || n > maxOrder()) {
+            throw error("no n-grams of order %d", n);
+        }
+        return _tables[n].get(index(text, i, n, _size));
+    }
+
+    @Override
+    public double score(int[] text, int length) {
+        double result = 0;
+        for (int i = 0; i + _order <= length; i += 1) {
+            result += _table.get(index(text, i, _order, _size));
+        }
+        return result;
+    }
+
+    @Override
+    public double change(int[] text, int length, int[] positions,
+                         int[] chars, int count) {
+        double before = windows(text, length, positions, count);
+        Fitness.exchange(text, positions, chars, count);
+        double after = windows(text, length, positions, count);
+        Fitness.exchange(text, positions, chars, count);
+        return after - before;
+    }
+
+    /**
+     * Return the sum of the log probabilities of the n-grams of
+     * TEXT[0 .. LENGTH-1] that include any of POSITIONS[0 .. COUNT-1],
+     * which are increasing.
+     */
+    private double windows(int[] text, int length, int[] positions,
+                           int count) {
+        double result = 0;
+        int next = 0;
+        for (int k = 0; k < count; k += 1) {
+            int from = Math.max(next, positions[k] - _order + 1);
+            int to = Math.min(positions[k], length - _order);
+            for (int i = from; i <= to; i += 1) {
+                result += _table.get(index(text, i, _order, _size));
+            }
+            next = Math.max(next, to + 1);
+        }
+        return result;
+    }
+
+    /**
+     * First word of a table file.
+     */
+    private static final int MAGIC = 0x4e47524d;
+
+    /**
+     * Version of the file format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Highest order of n-grams.
+     */
+    static final int MAX_ORDER = 4;
+
+    /**
+     * Most entries in all the tables, so that a file fits in one
+     * mapping.
+     */
+    private static final long MAX_ENTRIES = (1 << 29) - 1024;
+
+    /**
+     * Count given to n-grams not seen in the corpus.
+     */
+    private static final double FLOOR = 0.01;
+
+    /**
+     * The alphabet of the tables.
+     */
+    private final Alphabet _alphabet;
+
+    /**
+     * Size of _alphabet.
+     */
+    private final int _size;
+
+    /**
+     * _tables[N] holds the log probability of each N-gram.
+     */
+    private final FloatBuffer[] _tables;
+
+    /**
+     * Order of the n-grams scored.
+     */
+    private final int _order;
+
+    /**
+     * The table of the n-grams scored.
+     */
+    private final FloatBuffer _table;
+}
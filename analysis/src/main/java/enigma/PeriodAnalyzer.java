@@ -0,0 +1,258 @@
+package enigma;
+
+import java.util.Arrays;
+
+import static enigma.EnigmaException.*;
+
+/**
+ * The period of a Machine's rotor stack: the number of keystrokes after
+ * which the settings of its rotors repeat, found from the notches and
+ * pawls by the Odometer rather than by stepping the machine.  Also
+ * reports, for each level of moving rotors (level 0 being the fast
+ * rotor), the tail and period of that level and those to its right, how
+ * often it carries into the next level and how often it double steps.
+ * Usage:
+ *
+ *     java enigma.PeriodAnalyzer CONFIG SETTINGS...
+ *
+ * where CONFIG is a configuration file and each SETTINGS is a settings
+ * line, such as "* B Beta III IV I AXLE", whose stack is analyzed.
+ *
+ * @author Aishik Bhattacharyya
+ */
+public final class PeriodAnalyzer {
+
+    /**
+     * Print the analysis of the stacks described by ARGS (see the class
+     * comment) on the standard output.
+     */
+    public static void main(String... args) {
+        try {
+            if (args.length < 2) {
+                throw error("Usage: java enigma.PeriodAnalyzer CONFIG "
+                            + "SETTINGS...");
+            }
+            Machine machine = ConfigReader.readConfig(args[0]);
+            for (int i = 1; i < args.length; i += 1) {
+                ConfigReader.configure(machine, args[i].strip());
+                System.out.print(new PeriodAnalyzer(machine));
+            }
+            return;
+        } catch (EnigmaException excp) {
+            System.err.printf("Error: %s%n", excp.getMessage());
+        }
+        System.exit(1);
+    }
+
+    /**
+     * The analysis of the rotors of MACHINE from their current settings.
+     * MACHINE is not changed.
+     */
+    PeriodAnalyzer(Machine machine) {
+        long start = System.nanoTime();
+        Odometer odometer = new Odometer(machine);
+        int numRotors = machine.numRotors();
+        int[] settings = new int[numRotors];
+        for (int k = 1; k < numRotors; k += 1) {
+            settings[k] = machine.getRotor(k).setting();
+        }
+        int top = odometer.levels() - 1;
+        Odometer.Level[] levels =
+            odometer.analyze(settings, top, odometer.doubleSteps(top));
+        if (levels[top].period() < 0) {
+            throw error("rotor period too long to analyze");
+        }
+        _names = new String[levels.length];
+        _tails = new long[levels.length];
+        _periods = new long[levels.length];
+        _carries = new long[levels.length];
+        _doubleSteps = new long[levels.length];
+        for (int j = 0; j <= top; j += 1) {
+            _names[j] = machine.getRotor(odometer.slot(j)).name();
+            _tails[j] = leastTail(levels, j);
+            _periods[j] = levels[j].period();
+            if (j < top) {
+                _carries[j] = levels[j].cycleEvents().length;
+            }
+            if (odometer.doubleSteps(j)) {
+                _doubleSteps[j] = doubleSteps(levels[j], levels[j - 1]);
+            }
+        }
+        _nanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Return the least number of keystrokes after which levels 0..J of
+     * LEVELS repeat with their period.  The Odometer's tail is an upper
+     * bound, and once levels 0..J repeat they go on repeating, so the
+     * least is found by bisection.
+     */
+    private static long leastTail(Odometer.Level[] levels, int j) {
+        long period = levels[j].period();
+        long lo = 0, hi = levels[j].tail();
+        while (lo < hi) {
+            long mid = lo + (hi - lo) / 2;
+            if (repeats(levels, j, mid, period)) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Return true iff levels 0..J of LEVELS have the same settings after
+     * N and N + PERIOD keystrokes.
+     */
+    private static boolean repeats(Odometer.Level[] levels, int j, long n,
+                                   long period) {
+        for (int i = 0; i <= j; i += 1) {
+            if (levels[i].settingAt(n) != levels[i].settingAt(n + period)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return the number of keystrokes in the first period of LEVEL, a
+     * level that double steps, at which it is at a notch while BELOW,
+     * the level to its right, is not.
+     */
+    private static long doubleSteps(Odometer.Level level,
+                                    Odometer.Level below) {
+        long[] drivers = below.cycleEvents().clone();
+        for (int i = 0; i < drivers.length; i += 1) {
+            drivers[i] -= below.tail();
+        }
+        long result = 0;
+        for (long t : level.cycleEvents()) {
+            long r = (t - below.tail()) % below.period();
+            if (Arrays.binarySearch(drivers, r) < 0) {
+                result += 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return the number of keystrokes before the rotor settings first
+     * reach a state that recurs.  This is 0 unless the starting settings
+     * can never be seen again.
+     */
+    long tail() {
+        return _tails[levels() - 1];
+    }
+
+    /**
+     * Return the number of keystrokes between repetitions of the rotor
+     * settings, once past tail().
+     */
+    long period() {
+        return _periods[levels() - 1];
+    }
+
+    /**
+     * Return the number of double steps in each period(), summed over
+     * all levels.
+     */
+    long doubleSteps() {
+        long result = 0;
+        for (int j = 0; j < levels(); j += 1) {
+            result += _doubleSteps[j] * (period() / _periods[j]);
+        }
+        return result;
+    }
+
+    /**
+     * Return the number of levels of rotors that can move.
+     */
+    int levels() {
+        return _periods.length;
+    }
+
+    /**
+     * Return the name of the rotor at level J.
+     */
+    String name(int j) {
+        return _names[j];
+    }
+
+    /**
+     * Return the tail of levels 0..J taken alone (see tail()).
+     */
+    long tail(int j) {
+        return _tails[j];
+    }
+
+    /**
+     * Return the period of levels 0..J taken alone (see period()).
+     */
+    long period(int j) {
+        return _periods[j];
+    }
+
+    /**
+     * Return the number of keystrokes in each period(J) at which level J
+     * is at a notch and so moves level J + 1.
+     */
+    long carries(int j) {
+        return _carries[j];
+    }
+
+    /**
+     * Return the number of keystrokes in each period(J) at which level J
+     * moves because of its own notch alone.
+     */
+    long doubleSteps(int j) {
+        return _doubleSteps[j];
+    }
+
+    /**
+     * Return the time the analysis took, in nanoseconds.
+     */
+    long nanos() {
+        return _nanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        result.append(String.format("period: %d keystrokes after a tail "
+                                    + "of %d%n", period(), tail()));
+        result.append(String.format("double steps per period: %d%n",
+                                    doubleSteps()));
+        result.append(String.format("%5s %-8s %10s %12s %10s %12s%n",
+                                    "level", "rotor", "tail", "period",
+                                    "carries", "double steps"));
+        for (int j = 0; j < levels(); j += 1) {
+            result.append(String.format("%5d %-8s %10d %12d %10d %12d%n", j,
+                                        name(j), tail(j), period(j),
+                                        carries(j), doubleSteps(j)));
+        }
+        result.append(String.format("analyzed in %.1f us%n",
+                                    _nanos / 1000.0));
+        return result.toString();
+    }
+
+    /**
+     * Names of the rotors at each level.
+     */
+    private final String[] _names;
+
+    /**
+     * Tail and period of levels 0..J, for each level J.
+     */
+    private final long[] _tails, _periods;
+
+    /**
+     * Carries and double steps of each level in each of its periods.
+     */
+    private final long[] _carries, _doubleSteps;
+
+    /**
+     * Duration of the analysis.
+     */
+    private final long _nanos;
+}
@@ -0,0 +1,379 @@
+package enigma;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static enigma.EnigmaException.*;
+
+/**
+ * Recovery of the plugboard for a known rotor order and setting by hill
+ * climbing: starting with no plugs, each pair of letters is tried in
+ * turn, plugging them together (unplugging their partners if need be) or
+ * unplugging them, and the change is kept whenever it raises the
+ * Fitness of the decryption, until no such change helps.  Usage:
+ *
+ *     java enigma.PlugboardSolver CONFIG CIPHERTEXT SETTINGS [NGRAMS]
+ *
+ * prints the plugboard recovered for the ciphertext in the file
+ * CIPHERTEXT under the configuration CONFIG and the rotors, settings and
+ * rings given by the settings line SETTINGS (whose plugboard, if any, is
+ * ignored), scored by the NGramModel in the file NGRAMS or, by default,
+ * by index of coincidence, and the decryption.
+ *
+ * <p>Decryption at position i is P C_i P, for the plugboard P and the
+ * core C_i of the rotors and reflector, which does not depend on P.  So
+ * the cores of each position are looked up in a CoreTable, made once
+ * for each rotor setting (and kept in a CoreTableCache if the solver is
+ * given one), and plugboards are int arrays.  Trying a change
+ * recomputes only the positions it can affect: those whose ciphertext
+ * letter, or whose letter leaving the rotors, is one of the (at most
+ * four) letters whose plugs change.  The Fitness is told just those
+ * positions and their new letters.
+ *
+ * @author Aishik Bhattacharyya
+ */
+public final class PlugboardSolver {
+
+    /**
+     * Print the plugboard recovered for the ciphertext described by ARGS
+     * (see the class comment) on the standard output.
+     */
+    public static void main(String... args) {
+        try {
+            if (args.length < 3 || args.length > 4) {
+                throw error("Usage: java enigma.PlugboardSolver CONFIG "
+                            + "CIPHERTEXT SETTINGS [NGRAMS]");
+            }
+            Machine machine = ConfigReader.readConfig(args[0]);
+            String text;
+            try {
+                text = Files.readString(Paths.get(args[1]));
+            } catch (IOException excp) {
+                throw error("could not open %s", args[1]);
+            }
+            ConfigReader.configure(machine, args[2]);
+            Fitness fitness = args.length > 3
+                ? NGramModel.load(Paths.get(args[3]), machine.alphabet())
+                : new IndexOfCoincidence(machine.alphabet().size());
+            PlugboardSolver solver = new PlugboardSolver(machine, fitness);
+            long start = System.nanoTime();
+            String plugboard = solver.solve(text);
+            System.out.printf("%s (%.5f, %d changes tried in %.3f s)%n",
+                              plugboard, solver.score(), solver.tries(),
+                              (System.nanoTime() - start) * 1e-9);
+            System.out.println(solver.plaintext());
+            return;
+        } catch (EnigmaException excp) {
+            System.err.printf("Error: %s%n", excp.getMessage());
+        }
+        System.exit(1);
+    }
+
+    /**
+     * A solver for the rotors of MACHINE at their current settings,
+     * scoring decryptions with FITNESS.  MACHINE is not changed.
+     */
+    PlugboardSolver(Machine machine, Fitness fitness) {
+        this(machine, fitness, null);
+    }
+
+    /**
+     * A solver for the rotors of MACHINE at their current settings,
+     * scoring decryptions with FITNESS, and taking its core tables from
+     * CORES if it is not null.  MACHINE is not changed.
+     */
+    PlugboardSolver(Machine machine, Fitness fitness, CoreTableCache cores) {
+        _machine = machine.copy();
+        _alphabet = machine.alphabet();
+        _size = _alphabet.size();
+        _fitness = fitness;
+        _cache = cores;
+    }
+
+    /**
+     * Return the plugboard, as cycles, that best decrypts CIPHERTEXT,
+     * ignoring its characters that are not in the alphabet.
+     */
+    String solve(String ciphertext) {
+        int[] cipher = ciphertext.chars().map(c -> _alphabet.toInt((char) c))
+            .filter(c -> c >= 0).toArray();
+        return cycles(solve(cipher));
+    }
+
+    /**
+     * Return the plugboard that best decrypts CIPHER, as an involution on
+     * alphabet indices.
+     */
+    int[] solve(int[] cipher) {
+        int length = cipher.length;
+        _cipher = cipher;
+        _cores = _cache == null ? new CoreTable(_machine, length)
+            : _cache.get(_machine, length);
+        _plug = new int[_size];
+        for (int c = 0; c < _size; c += 1) {
+            _plug[c] = c;
+        }
+        _plain = new int[length];
+        _middle = new int[length];
+        for (int i = 0; i < length; i += 1) {
+            _middle[i] = _cores.core(i, cipher[i]);
+            _plain[i] = _middle[i];
+        }
+        _byCipher = index(cipher);
+        _byMiddle = index(_middle);
+        _positions = new int[length];
+        _chars = new int[length];
+        _marks = new int[length];
+        _mark = 0;
+        _tries = 0;
+        _score = _fitness.score(_plain, length);
+
+        int[] next = new int[_size];
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int a = 0; a < _size; a += 1) {
+                for (int b = a + 1; b < _size; b += 1) {
+                    move(a, b, next);
+                    if (tryPlugboard(next)) {
+                        improved = true;
+                    }
+                }
+            }
+        }
+        return _plug.clone();
+    }
+
+    /**
+     * Return the fitness of the decryption with the plugboard last found
+     * by solve.
+     */
+    double score() {
+        return _score;
+    }
+
+    /**
+     * Return the decryption with the plugboard last found by solve.
+     */
+    String plaintext() {
+        char[] result = new char[_plain.length];
+        for (int i = 0; i < result.length; i += 1) {
+            result[i] = _alphabet.toChar(_plain[i]);
+        }
+        return new String(result);
+    }
+
+    /**
+     * Return the number of plugboards tried by the last solve.
+     */
+    long tries() {
+        return _tries;
+    }
+
+    /**
+     * Set NEXT to the current plugboard with A and B plugged together,
+     * their former partners unplugged, or with A and B unplugged if they
+     * are already plugged together.
+     */
+    private void move(int a, int b, int[] next) {
+        System.arraycopy(_plug, 0, next, 0, _size);
+        if (next[a] == b) {
+            next[a] = a;
+            next[b] = b;
+            return;
+        }
+        next[next[a]] = next[a];
+        next[next[b]] = next[b];
+        next[a] = b;
+        next[b] = a;
+    }
+
+    /**
+     * Adopt the plugboard NEXT if that raises the fitness by more than
+     * rounding error, returning true iff it does.
+     */
+    private boolean tryPlugboard(int[] next) {
+        _tries += 1;
+        _mark += 1;
+        int count = 0;
+        for (int c = 0; c < _size; c += 1) {
+            if (next[c] == _plug[c]) {
+                continue;
+            }
+            count = affected(_byCipher, c, count);
+            count = affected(_byMiddle, c, count);
+        }
+        if (count == 0) {
+            return false;
+        }
+        Arrays.sort(_positions, 0, count);
+        for (int k = 0; k < count; k += 1) {
+            int i = _positions[k];
+            _chars[k] = _cores.convert(next, i, _cipher[i]);
+        }
+        double delta = _fitness.change(_plain, _plain.length, _positions,
+                                       _chars, count);
+        if (delta <= MIN_GAIN * Math.max(1, Math.abs(_score))) {
+            return false;
+        }
+        _score += delta;
+        System.arraycopy(next, 0, _plug, 0, _size);
+        for (int k = 0; k < count; k += 1) {
+            int i = _positions[k];
+            _plain[i] = _chars[k];
+            _middle[i] = _cores.core(i, _plug[_cipher[i]]);
+        }
+        _byMiddle = index(_middle);
+        return true;
+    }
+
+    /**
+     * Add the positions listed under letter C in INDEX to _positions,
+     * which holds COUNT positions, unless already marked with _mark.
+     * Returns the new count.
+     */
+    private int affected(int[][] index, int c, int count) {
+        for (int i : index[c]) {
+            if (_marks[i] != _mark) {
+                _marks[i] = _mark;
+                _positions[count] = i;
+                count += 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Return, for each letter, the positions at which it appears in
+     * TEXT.
+     */
+    private int[][] index(int[] text) {
+        int[] counts = new int[_size];
+        for (int c : text) {
+            counts[c] += 1;
+        }
+        int[][] result = new int[_size][];
+        for (int c = 0; c < _size; c += 1) {
+            result[c] = new int[counts[c]];
+            counts[c] = 0;
+        }
+        for (int i = 0; i < text.length; i += 1) {
+            result[text[i]][counts[text[i]]] = i;
+            counts[text[i]] += 1;
+        }
+        return result;
+    }
+
+    /**
+     * Return the plugboard PLUG as cycles, as in a settings line.
+     */
+    String cycles(int[] plug) {
+        StringBuilder result = new StringBuilder();
+        for (int a = 0; a < _size; a += 1) {
+            if (plug[a] > a) {
+                if (result.length() > 0) {
+                    result.append(' ');
+                }
+                result.append('(').append(_alphabet.toChar(a))
+                    .append(_alphabet.toChar(plug[a])).append(')');
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Smallest rise in fitness, relative to the fitness itself, for which
+     * a change is kept.  Changes found by summing over parts of the text
+     * can disagree in their last bits, so that without this two
+     * plugboards could each seem to improve on the other forever.
+     */
+    private static final double MIN_GAIN = 1e-9;
+
+    /**
+     * A machine holding the rotors, at their settings.
+     */
+    private final Machine _machine;
+
+    /**
+     * Where core tables are kept, or null.
+     */
+    private final CoreTableCache _cache;
+
+    /**
+     * The alphabet.
+     */
+    private final Alphabet _alphabet;
+
+    /**
+     * Size of _alphabet.
+     */
+    private final int _size;
+
+    /**
+     * The measure of decryptions.
+     */
+    private final Fitness _fitness;
+
+    /**
+     * The ciphertext being solved.
+     */
+    private int[] _cipher;
+
+    /**
+     * The cores of the positions of _cipher.
+     */
+    private CoreTable _cores;
+
+    /**
+     * The current plugboard.
+     */
+    private int[] _plug;
+
+    /**
+     * The decryption with _plug.
+     */
+    private int[] _plain;
+
+    /**
+     * The letter leaving the rotors at each position with _plug.
+     */
+    private int[] _middle;
+
+    /**
+     * The positions of each letter in _cipher.
+     */
+    private int[][] _byCipher;
+
+    /**
+     * The positions of each letter in _middle.
+     */
+    private int[][] _byMiddle;
+
+    /**
+     * Positions affected by the plugboard being tried, and their new
+     * letters.
+     */
+    private int[] _positions, _chars;
+
+    /**
+     * _marks[I] is _mark iff position I is in _positions.
+     */
+    private int[] _marks;
+
+    /**
+     * The mark of the plugboard being tried.
+     */
+    private int _mark;
+
+    /**
+     * Fitness of _plain.
+     */
+    private double _score;
+
+    /**
+     * Number of plugboards tried.
+     */
+    private long _tries;
+}
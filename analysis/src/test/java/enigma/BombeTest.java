@@ -0,0 +1,96 @@
+package enigma;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+
+import static org.junit.Assert.*;
+
+/**
+ * The suite of all JUnit tests for the Bombe class.
+ *
+ * @author
+ */
+public class BombeTest {
+
+    /**
+     * Testing time limit.
+     */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(30);
+
+    /* ***** TESTS ***** */
+
+    /**
+     * Return the encryption of KeySearchTest.PLAIN under the settings
+     * line SETTINGS on KeySearchTest.naval().
+     */
+    private static String encrypt(String settings) {
+        Machine mach = KeySearchTest.naval();
+        ConfigReader.configure(mach, settings);
+        return mach.convert(KeySearchTest.PLAIN.replace(" ", ""));
+    }
+
+    @Test
+    public void testPlacements() {
+        int[] cipher = {0, 1, 2, 3, 4};
+        assertEquals(List.of(2, 3),
+                     Bombe.placements(cipher, new int[] {1, 1}));
+        assertEquals(List.of(), Bombe.placements(cipher, new int[] {0, 1,
+                                                                     2, 3,
+                                                                     0, 0}));
+        assertEquals(List.of(0, 1),
+                     Bombe.placements(cipher, new int[] {3, 0, 0, 0}));
+    }
+
+    @Test
+    public void testSearch() {
+        String cipher = encrypt("* B Gamma IV I MQR AAA (AQ) (EP) (TX) (HN)");
+        Bombe bombe = new Bombe(KeySearchTest.naval());
+        assertEquals(2 * 6 * 26 * 26 * 26, bombe.starts());
+        List<Bombe.Stop> stops =
+            Collections.synchronizedList(new ArrayList<>());
+        assertEquals(1, bombe.search(cipher, "ITWASTHEBESTOFTIMESITWAS",
+                                     0, stops::add));
+        assertFalse(stops.isEmpty());
+        assertTrue(stops.size() < 10);
+        Bombe.Stop found = null;
+        for (Bombe.Stop stop : stops) {
+            if (stop.setting().equals("MQR")
+                && String.join(" ", stop.rotors()).equals("B Gamma IV I")) {
+                found = stop;
+            }
+        }
+        assertNotNull(found);
+        assertEquals(0, found.offset());
+        for (String pair : found.plugboard().split(" ")) {
+            assertTrue(pair, "(AQ) (EP) (TX) (HN)".contains(pair));
+        }
+        assertTrue(found.plugboard().contains("(TX)"));
+        assertTrue(found.settingsLine().startsWith(
+            "* B Gamma IV I MQR AAA (A"));
+    }
+
+    @Test
+    public void testAllPlacements() {
+        String cipher = encrypt("* B Beta III I AZR AAA (TX)");
+        Bombe bombe = new Bombe(KeySearchTest.naval());
+        List<Bombe.Stop> stops =
+            Collections.synchronizedList(new ArrayList<>());
+        int placements = bombe.search(cipher.substring(0, 40),
+                                      "OFTIMESITWASTHEWORST", -1,
+                                      stops::add);
+        assertTrue(placements > 1 && placements <= 21);
+        boolean found = false;
+        for (Bombe.Stop stop : stops) {
+            found |= stop.offset() == 12
+                && stop.settingsLine().startsWith("* B Beta III I AZR AAA");
+        }
+        assertTrue(found);
+    }
+
+}
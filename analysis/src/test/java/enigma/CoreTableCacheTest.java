@@ -0,0 +1,124 @@
+package enigma;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+
+import static org.junit.Assert.*;
+
+/**
+ * The suite of all JUnit tests for the CoreTable and CoreTableCache
+ * classes.
+ *
+ * @author
+ */
+public class CoreTableCacheTest {
+
+    /**
+     * Testing time limit.
+     */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10);
+
+    /* ***** TESTS ***** */
+
+    /**
+     * Return a random plugboard on SIZE letters, as an involution, chosen
+     * by RANDOM.
+     */
+    private static int[] randomPlugboard(int size, Random random) {
+        int[] result = new int[size];
+        for (int c = 0; c < size; c += 1) {
+            result[c] = c;
+        }
+        for (int k = 0; k < 8; k += 1) {
+            int a = random.nextInt(size), b = random.nextInt(size);
+            if (result[a] == a && result[b] == b) {
+                result[a] = b;
+                result[b] = a;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return PLUG as cycles on alphabet A.
+     */
+    private static String cycles(int[] plug, Alphabet a) {
+        StringBuilder result = new StringBuilder();
+        for (int c = 0; c < plug.length; c += 1) {
+            if (plug[c] > c) {
+                result.append('(').append(a.toChar(c))
+                    .append(a.toChar(plug[c])).append(')');
+            }
+        }
+        return result.toString();
+    }
+
+    @Test
+    public void testAgreesWithMachine() {
+        Machine mach = KeySearchTest.naval();
+        ConfigReader.configure(mach, "* B Beta III IV AZX CDE");
+        CoreTable table = new CoreTable(mach, 700);
+        assertEquals(700, table.length());
+        assertEquals(26, table.size());
+        Random random = new Random(24);
+        int[] in = new int[700], out = new int[700];
+        for (int i = 0; i < in.length; i += 1) {
+            in[i] = random.nextInt(26);
+        }
+        for (int trial = 0; trial < 20; trial += 1) {
+            int[] plug = randomPlugboard(26, random);
+            int length = 1 + random.nextInt(700);
+            table.convert(plug, in, out, length);
+            Machine m = mach.copy();
+            m.setPlugboard(cycles(plug, m.alphabet()));
+            for (int i = 0; i < length; i += 1) {
+                assertEquals(m.convert(in[i]), out[i]);
+                assertEquals(out[i], table.convert(plug, i, in[i]));
+            }
+        }
+        assertEquals('X', mach.alphabet().toChar(mach.getRotor(3)
+                                                 .setting()));
+    }
+
+    @Test
+    public void testCache() {
+        Machine mach = KeySearchTest.naval();
+        ConfigReader.configure(mach, "* B Beta III IV AZX CDE");
+        CoreTableCache cache = new CoreTableCache(14000);
+        CoreTable table = cache.get(mach, 200);
+        assertSame(table, cache.get(mach, 150));
+        assertSame(table, cache.get(mach.copy(), 200));
+        assertEquals(1, cache.misses());
+        assertEquals(2, cache.hits());
+        assertEquals(table.bytes(), cache.bytes());
+
+        CoreTable longer = cache.get(mach, 300);
+        assertNotSame(table, longer);
+        assertSame(longer, cache.get(mach, 200));
+        assertEquals(1, cache.size());
+
+        ConfigReader.configure(mach, "* B Beta III IV AZX CDF");
+        CoreTable other = cache.get(mach, 200);
+        assertNotSame(longer, other);
+        assertEquals(2, cache.size());
+        assertTrue(cache.bytes() <= 14000);
+
+        ConfigReader.configure(mach, "* B Beta III IV AZY CDF");
+        cache.get(mach, 200);
+        assertEquals(2, cache.size());
+        assertTrue(cache.bytes() <= 14000);
+        ConfigReader.configure(mach, "* B Beta III IV AZX CDF");
+        assertSame(other, cache.get(mach, 200));
+        ConfigReader.configure(mach, "* B Beta III IV AZX CDE");
+        assertNotSame(longer, cache.get(mach, 200));
+
+        CoreTable huge = cache.get(mach, 5000);
+        assertEquals(5000, huge.length());
+        assertTrue(cache.bytes() <= 14000);
+    }
+
+}
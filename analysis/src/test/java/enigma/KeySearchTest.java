@@ -0,0 +1,111 @@
+package enigma;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+
+import static org.junit.Assert.*;
+
+/**
+ * The suite of all JUnit tests for the KeySearch class.
+ *
+ * @author
+ */
+public class KeySearchTest {
+
+    /**
+     * Testing time limit.
+     */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(30);
+
+    /* ***** TESTS ***** */
+
+    /**
+     * The alphabet of the tests.
+     */
+    private static final Alphabet AZ =
+        new Alphabet("ABCDEFGHIJKLMNOPQRSTUVWXYZ");
+
+    /**
+     * Some English text.
+     */
+    static final String PLAIN =
+        "IT WAS THE BEST OF TIMES IT WAS THE WORST OF TIMES IT WAS THE AGE "
+        + "OF WISDOM IT WAS THE AGE OF FOOLISHNESS IT WAS THE EPOCH OF "
+        + "BELIEF IT WAS THE EPOCH OF INCREDULITY IT WAS THE SEASON OF LIGHT "
+        + "IT WAS THE SEASON OF DARKNESS IT WAS THE SPRING OF HOPE IT WAS "
+        + "THE WINTER OF DESPAIR WE HAD EVERYTHING BEFORE US WE HAD NOTHING "
+        + "BEFORE US WE WERE ALL GOING DIRECT TO HEAVEN WE WERE ALL GOING "
+        + "DIRECT THE OTHER WAY";
+
+    /**
+     * Return a machine with four slots and two pawls, and Naval rotors: a
+     * reflector, two non-moving rotors and three moving ones.
+     */
+    static Machine naval() {
+        return naval(4, 2);
+    }
+
+    /**
+     * Return a machine with NUMROTORS slots and PAWLS pawls, and the
+     * rotors of naval().
+     */
+    static Machine naval(int numRotors, int pawls) {
+        List<Rotor> rotors = List.of(
+            new Reflector("B", new Permutation(
+                "(AE) (BN) (CK) (DQ) (FU) (GY) (HW) (IJ) (LO) (MP) "
+                + "(RX) (SZ) (TV)", AZ)),
+            new FixedRotor("Beta", new Permutation(
+                "(ALBEVFCYODJWUGNMQTZSKPR) (HIX)", AZ)),
+            new FixedRotor("Gamma", new Permutation(
+                "(AFNIRLBSQWVXGUZDKMTPCOYJHE)", AZ)),
+            new MovingRotor("III", new Permutation(
+                "(ABDHPEJT) (CFLVMZOYQIRWUKXSG) (N)", AZ), "V"),
+            new MovingRotor("IV", new Permutation(
+                "(AEPLIYWCOXMRFZBSTGJQNH) (DV) (KU)", AZ), "J"),
+            new MovingRotor("I", new Permutation(
+                "(AELTPHQXRU) (BKNW) (CMOY) (DFG) (IV) (JZ) (S)", AZ),
+                "Q"));
+        return new Machine(AZ, numRotors, pawls, rotors);
+    }
+
+    @Test
+    public void testIndexOfCoincidence() {
+        IndexOfCoincidence ic = new IndexOfCoincidence(4);
+        assertEquals(0, ic.score(new int[] {1}, 1), 0);
+        assertEquals(1, ic.score(new int[] {2, 2, 2}, 3), 0);
+        assertEquals(0, ic.score(new int[] {0, 1, 2, 3}, 4), 0);
+        assertEquals(2.0 / 12, ic.score(new int[] {0, 1, 0, 3, 9}, 4), 1e-12);
+    }
+
+    @Test
+    public void testSearch() {
+        Machine mach = naval();
+        mach.insertRotors(new String[] {"B", "Gamma", "IV", "I"});
+        mach.setRotors("MQR");
+        mach.setRings("AAA");
+        mach.setPlugboard("(AQ) (EP)");
+        String cipher = mach.convert(PLAIN.replace(" ", ""));
+
+        KeySearch search = new KeySearch(naval(),
+            () -> new IndexOfCoincidence(26));
+        search.setPlugboard("(AQ) (EP)");
+        assertEquals(2 * 6 * 26 * 26 * 26, search.keys());
+        List<KeySearch.Candidate> best = search.search(cipher, 5);
+        assertEquals(5, best.size());
+        KeySearch.Candidate top = best.get(0);
+        assertArrayEquals(new String[] {"B", "Gamma", "IV", "I"},
+                          top.rotors());
+        assertEquals("MQR", top.setting());
+        assertEquals("* B Gamma IV I MQR AAA (AQ) (EP)", top.settingsLine());
+        assertTrue(top.score() > 0.06);
+        for (int i = 1; i < best.size(); i += 1) {
+            assertTrue(best.get(i).score() <= best.get(i - 1).score());
+            assertTrue(best.get(i).score() < 0.05);
+        }
+    }
+
+}
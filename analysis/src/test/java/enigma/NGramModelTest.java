@@ -0,0 +1,162 @@
+package enigma;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import static org.junit.Assert.*;
+
+/**
+ * The suite of all JUnit tests for the NGramModel class.
+ *
+ * @author
+ */
+public class NGramModelTest {
+
+    /**
+     * Testing time limit.
+     */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10);
+
+    /**
+     * Where table files are written.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /* ***** TESTS ***** */
+
+    @Test
+    public void testCounts() {
+        Alphabet abc = new Alphabet("ABC");
+        NGramModel model = NGramModel.build(abc, "ab-cab CAB", 2);
+        assertEquals(2, model.order());
+        assertEquals(2, model.maxOrder());
+        int[] text = {0, 1, 2, 0, 1, 2, 0, 1};
+        assertEquals(Math.log10(3.0 / 8), model.logProbability(text, 0, 1),
+                     1e-6);
+        assertEquals(Math.log10(2.0 / 8), model.logProbability(text, 2, 1),
+                     1e-6);
+        assertEquals(Math.log10(3.0 / 7), model.logProbability(text, 0, 2),
+                     1e-6);
+        assertEquals(Math.log10(2.0 / 7), model.logProbability(text, 1, 2),
+                     1e-6);
+        int[] unseen = {1, 0};
+        assertEquals(Math.log10(0.01 / 7),
+                     model.logProbability(unseen, 0, 2), 1e-6);
+        assertEquals(3 * Math.log10(3.0 / 7) + 2 * Math.log10(2.0 / 7)
+                     + 2 * Math.log10(2.0 / 7),
+                     model.score(text, 8), 1e-5);
+        assertEquals(0, model.score(text, 1), 0);
+        assertEquals(model.logProbability(text, 0, 1)
+                     + model.logProbability(text, 1, 1),
+                     model.withOrder(1).score(text, 2), 1e-6);
+    }
+
+    @Test
+    public void testFile() throws IOException {
+        Alphabet az = new Alphabet("ABCDEFGHIJKLMNOPQRSTUVWXYZ");
+        Path file = folder.getRoot().toPath().resolve("english.ngrams");
+        NGramModel.write(az, KeySearchTest.PLAIN, 4, file);
+        assertEquals(4 * (26 + 676 + 17576 + 456976) + 68,
+                     Files.size(file));
+        NGramModel built = NGramModel.build(az, KeySearchTest.PLAIN, 4);
+        NGramModel loaded = NGramModel.load(file, az);
+        assertTrue(loaded.fits(az));
+        assertFalse(loaded.fits(new Alphabet("ABCDEFGHIJKLMNOPQRSTUVWXZY")));
+        Random random = new Random(25);
+        int[] text = new int[4];
+        for (int i = 0; i < 1000; i += 1) {
+            for (int j = 0; j < 4; j += 1) {
+                text[j] = random.nextInt(26);
+            }
+            for (int n = 1; n <= 4; n += 1) {
+                assertEquals(built.logProbability(text, 0, n),
+                             loaded.logProbability(text, 0, n), 0);
+            }
+        }
+        try {
+            NGramModel.load(file, new Alphabet("ABC"));
+            fail("loaded tables for the wrong alphabet");
+        } catch (EnigmaException excp) {
+            /* Ignore */
+        }
+        Path corrupt = folder.getRoot().toPath().resolve("bad.ngrams");
+        for (int size : new int[] {-1, 0, 1 << 30, 100}) {
+            Files.write(corrupt, ByteBuffer.allocate(64).putInt(0x4e47524d)
+                        .putInt(1).putInt(size).array());
+            try {
+                NGramModel.load(corrupt);
+                fail("loaded a file with alphabet size " + size);
+            } catch (EnigmaException excp) {
+                /* Ignore */
+            }
+        }
+        Path truncated = folder.getRoot().toPath().resolve("short.ngrams");
+        Files.write(truncated, new byte[] {0x4e, 0x47, 0x52, 0x4d, 0, 0});
+        try {
+            NGramModel.load(truncated);
+            fail("loaded a truncated file");
+        } catch (EnigmaException excp) {
+            /* Ignore */
+        }
+    }
+
+    @Test
+    public void testChange() {
+        Alphabet az = new Alphabet("ABCDEFGHIJKLMNOPQRSTUVWXYZ");
+        NGramModel model = NGramModel.build(az, KeySearchTest.PLAIN, 4);
+        Random random = new Random(2);
+        int[] text = new int[60];
+        int[] positions = new int[10], chars = new int[10];
+        for (int trial = 0; trial < 200; trial += 1) {
+            NGramModel scorer = model.withOrder(1 + random.nextInt(4));
+            for (int i = 0; i < text.length; i += 1) {
+                text[i] = random.nextInt(26);
+            }
+            int length = 1 + random.nextInt(text.length);
+            int count = 0;
+            for (int i = 0; i < length && count < chars.length; i += 1) {
+                if (random.nextInt(8) == 0) {
+                    positions[count] = i;
+                    chars[count] = random.nextInt(26);
+                    count += 1;
+                }
+            }
+            int[] changed = text.clone();
+            for (int k = 0; k < count; k += 1) {
+                changed[positions[k]] = chars[k];
+            }
+            int[] original = text.clone();
+            assertEquals(scorer.score(changed, length)
+                         - scorer.score(text, length),
+                         scorer.change(text, length, positions, chars,
+                                       count), 1e-3);
+            assertArrayEquals(original, text);
+        }
+    }
+
+    @Test
+    public void testPlugboardSolver() {
+        String plugboard = "(AQ) (BJ) (EP) (HN) (KU) (TX)";
+        Machine mach = KeySearchTest.naval();
+        String plain = KeySearchTest.PLAIN.replace(" ", "");
+        ConfigReader.configure(mach, "* B Gamma IV I MQR ABC " + plugboard);
+        String cipher = mach.convert(plain);
+        ConfigReader.configure(mach, "* B Gamma IV I MQR ABC");
+        NGramModel model = NGramModel.build(mach.alphabet(),
+                                            KeySearchTest.PLAIN, 4);
+        PlugboardSolver solver = new PlugboardSolver(mach, model);
+        assertEquals(plugboard, solver.solve(cipher));
+        assertEquals(plain, solver.plaintext());
+    }
+
+}
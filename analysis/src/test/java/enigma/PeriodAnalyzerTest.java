@@ -0,0 +1,171 @@
+package enigma;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+
+import static org.junit.Assert.*;
+
+/**
+ * The suite of all JUnit tests for the PeriodAnalyzer class.
+ *
+ * @author
+ */
+public class PeriodAnalyzerTest {
+
+    /**
+     * Testing time limit.
+     */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10);
+
+    /* ***** TESTS ***** */
+
+    /**
+     * Return the settings of M's rotors as one number.
+     */
+    private static long state(Machine m) {
+        long result = 0;
+        for (int k = m.numRotors() - 1; k > 0; k -= 1) {
+            result = result * m.alphabet().size() + m.getRotor(k).setting();
+        }
+        return result;
+    }
+
+    /**
+     * Set M's rotors to STATE, as returned by state.
+     */
+    private static void setState(Machine m, long state) {
+        for (int k = 1; k < m.numRotors(); k += 1) {
+            m.getRotor(k).set((int) (state % m.alphabet().size()));
+            state /= m.alphabet().size();
+        }
+    }
+
+    /**
+     * Return the state after STATE, found by converting with M.
+     */
+    private static long next(Machine m, long state) {
+        setState(m, state);
+        m.convert(0);
+        return state(m);
+    }
+
+    /**
+     * Return {tail, period, double steps per period} of M from its
+     * current settings, found by stepping it, with Brent's cycle-finding
+     * algorithm.
+     */
+    private static long[] simulate(Machine m) {
+        long start = state(m);
+        long power = 1, period = 1;
+        long tortoise = start, hare = next(m, start);
+        while (tortoise != hare) {
+            if (power == period) {
+                tortoise = hare;
+                power *= 2;
+                period = 0;
+            }
+            hare = next(m, hare);
+            period += 1;
+        }
+        long tail = 0;
+        tortoise = hare = start;
+        for (long i = 0; i < period; i += 1) {
+            hare = next(m, hare);
+        }
+        while (tortoise != hare) {
+            tortoise = next(m, tortoise);
+            hare = next(m, hare);
+            tail += 1;
+        }
+        MachineMetrics metrics = new MachineMetrics(m.numRotors());
+        m.setMetrics(metrics);
+        setState(m, tortoise);
+        for (long i = 0; i < period; i += 1) {
+            m.convert(0);
+        }
+        m.setMetrics(null);
+        return new long[] {tail, period, metrics.getDoubleSteps()};
+    }
+
+    /**
+     * Return a machine on an alphabet of SIZE letters with NUMROTORS
+     * slots and PAWLS pawls, and rotors with notches chosen by RANDOM,
+     * inserted and set at random.
+     */
+    private static Machine randomMachine(int size, int numRotors, int pawls,
+                                         Random random) {
+        Alphabet alpha = new Alphabet("ABCDEFGHIJKLMNOP".substring(0, size));
+        List<Rotor> rotors = new ArrayList<>();
+        String[] names = new String[numRotors];
+        names[0] = "R";
+        rotors.add(new Reflector("R", new Permutation("", alpha)));
+        for (int k = 1; k < numRotors; k += 1) {
+            names[k] = "M" + k;
+            if (numRotors - k > pawls) {
+                rotors.add(new FixedRotor(names[k],
+                                          new Permutation("", alpha)));
+                continue;
+            }
+            StringBuilder notches = new StringBuilder();
+            for (int c = 0; c < size; c += 1) {
+                if (random.nextInt(4) == 0) {
+                    notches.append(alpha.toChar(c));
+                }
+            }
+            rotors.add(new MovingRotor(names[k], new Permutation("", alpha),
+                                       notches.toString()));
+        }
+        Machine result = new Machine(alpha, numRotors, pawls, rotors);
+        result.insertRotors(names);
+        result.setPlugboard("");
+        for (int k = 1; k < numRotors; k += 1) {
+            result.getRotor(k).set(random.nextInt(size));
+        }
+        return result;
+    }
+
+    @Test
+    public void testNaval() {
+        Machine mach = KeySearchTest.naval(5, 3);
+        mach.insertRotors(new String[] {"B", "Beta", "III", "IV", "I"});
+        mach.setRotors("AXLE");
+        mach.setPlugboard("");
+        PeriodAnalyzer period = new PeriodAnalyzer(mach);
+        assertEquals(16900, period.period());
+        assertEquals(3, period.levels());
+        assertEquals("I", period.name(0));
+        assertEquals(26, period.period(0));
+        assertEquals(650, period.period(1));
+        assertEquals(1, period.carries(0));
+        assertEquals(1, period.doubleSteps(1));
+        long[] expected = simulate(mach);
+        assertEquals(expected[0], period.tail());
+        assertEquals(expected[1], period.period());
+        assertEquals(expected[2], period.doubleSteps());
+    }
+
+    @Test
+    public void testRandomStacks() {
+        Random random = new Random(61);
+        for (int i = 0; i < 300; i += 1) {
+            int size = 2 + random.nextInt(5);
+            int numRotors = 2 + random.nextInt(4);
+            int pawls = 1 + random.nextInt(numRotors);
+            Machine mach = randomMachine(size, numRotors, pawls, random);
+            PeriodAnalyzer period = new PeriodAnalyzer(mach);
+            long[] expected = simulate(mach);
+            String where = String.format("size %d, %d rotors, %d pawls",
+                                         size, numRotors, pawls);
+            assertEquals(where, expected[0], period.tail());
+            assertEquals(where, expected[1], period.period());
+            assertEquals(where, expected[2], period.doubleSteps());
+        }
+    }
+
+}
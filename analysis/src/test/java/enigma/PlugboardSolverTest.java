@@ -0,0 +1,119 @@
+package enigma;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+
+import static org.junit.Assert.*;
+
+/**
+ * The suite of all JUnit tests for the PlugboardSolver class.
+ *
+ * @author
+ */
+public class PlugboardSolverTest {
+
+    /**
+     * Testing time limit.
+     */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10);
+
+    /* ***** TESTS ***** */
+
+    /**
+     * A fitness that counts the characters agreeing with a known text,
+     * and finds changes from the positions changed alone.
+     */
+    private static class Agreement implements Fitness {
+
+        /**
+         * Agreement with EXPECTED.
+         */
+        Agreement(int[] expected) {
+            _expected = expected;
+        }
+
+        @Override
+        public double score(int[] text, int length) {
+            int result = 0;
+            for (int i = 0; i < length; i += 1) {
+                result += text[i] == _expected[i] ? 1 : 0;
+            }
+            return result;
+        }
+
+        @Override
+        public double change(int[] text, int length, int[] positions,
+                             int[] chars, int count) {
+            changes += 1;
+            int result = 0;
+            for (int k = 0; k < count; k += 1) {
+                int i = positions[k];
+                assertTrue(k == 0 || i > positions[k - 1]);
+                result += (chars[k] == _expected[i] ? 1 : 0)
+                    - (text[i] == _expected[i] ? 1 : 0);
+            }
+            return result;
+        }
+
+        /**
+         * The known text.
+         */
+        private final int[] _expected;
+
+        /**
+         * Number of calls of change.
+         */
+        int changes;
+    }
+
+    /**
+     * Return the indices of the letters of S in alphabet A.
+     */
+    private static int[] indices(String s, Alphabet a) {
+        return s.chars().map(c -> a.toInt((char) c)).toArray();
+    }
+
+    @Test
+    public void testKnownPlaintext() {
+        String plugboard = "(AQ) (BJ) (EP) (HN) (KU) (TX)";
+        Machine mach = KeySearchTest.naval();
+        String plain = KeySearchTest.PLAIN.replace(" ", "");
+        ConfigReader.configure(mach, "* B Gamma IV I MQR ABC " + plugboard);
+        String cipher = mach.convert(plain);
+
+        ConfigReader.configure(mach, "* B Gamma IV I MQR ABC");
+        Agreement fitness = new Agreement(indices(plain, mach.alphabet()));
+        PlugboardSolver solver = new PlugboardSolver(mach, fitness);
+        assertEquals(plugboard, solver.solve(cipher));
+        assertEquals(plain.length(), solver.score(), 0);
+        assertEquals(plain, solver.plaintext());
+        assertEquals(solver.tries(), fitness.changes);
+        assertEquals('R', mach.alphabet().toChar(mach.getRotor(3)
+                                                 .setting()));
+
+        CoreTableCache cores = new CoreTableCache(1 << 20);
+        for (int k = 0; k < 2; k += 1) {
+            solver = new PlugboardSolver(mach, fitness, cores);
+            assertEquals(plugboard, solver.solve(cipher));
+        }
+        assertEquals(1, cores.misses());
+        assertEquals(1, cores.hits());
+    }
+
+    @Test
+    public void testDefaultChange() {
+        Fitness ic = new IndexOfCoincidence(4);
+        int[] text = {0, 1, 2, 3, 0, 1};
+        int[] positions = {1, 3};
+        int[] chars = {0, 0};
+        double expected = ic.score(new int[] {0, 0, 2, 0, 0, 1}, 6)
+            - ic.score(text, 6);
+        assertEquals(expected, ic.change(text, 6, positions, chars, 2),
+                     1e-12);
+        assertArrayEquals(new int[] {0, 1, 2, 3, 0, 1}, text);
+        assertArrayEquals(new int[] {0, 0}, chars);
+    }
+
+}
@@ -0,0 +1,86 @@
+package enigma;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Lookups in both directions on an Alphabet.
+ *
+ * @author Aishik Bhattacharyya
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlphabetBenchmark {
+
+    /**
+     * Number of characters in the alphabet.
+     */
+    @Param({"26", "62", "200"})
+    private int size;
+
+    /**
+     * The alphabet being measured.
+     */
+    private Alphabet _alphabet;
+
+    /**
+     * Its characters, in order.
+     */
+    private char[] _chars;
+
+    /**
+     * Build the alphabet.
+     */
+    @Setup
+    public void setup() {
+        String chars = BenchSupport.alphabet(size);
+        _alphabet = new Alphabet(chars);
+        _chars = chars.toCharArray();
+    }
+
+    /**
+     * Look up the index of every character.
+     */
+    @Benchmark
+    public void toInt(Blackhole sink) {
+        for (char c : _chars) {
+            sink.consume(_alphabet.toInt(c));
+        }
+    }
+
+    /**
+     * Look up the character at every index.
+     */
+    @Benchmark
+    public void toChar(Blackhole sink) {
+        for (int i = 0; i < _chars.length; i += 1) {
+            sink.consume(_alphabet.toChar(i));
+        }
+    }
+
+    /**
+     * Test membership of every character.
+     */
+    @Benchmark
+    public void contains(Blackhole sink) {
+        for (char c : _chars) {
+            sink.consume(_alphabet.contains(c));
+        }
+    }
+}
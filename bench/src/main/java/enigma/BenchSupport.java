@@ -0,0 +1,223 @@
+package enigma;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generated alphabets, rotor catalogues, configurations and messages for
+ * the benchmarks.  Everything is derived from a seed, so each benchmark
+ * parameter combination sees the same data on every run.  Catalogues
+ * follow testing/correct/default.conf: a reflector, a non-moving rotor
+ * next to it when there is room, and moving rotors with one notch each
+ * in the remaining slots.
+ *
+ * @author Aishik Bhattacharyya
+ */
+final class BenchSupport {
+
+    /**
+     * Characters from which alphabets are drawn, in order.
+     */
+    private static final String CHARS =
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+    /**
+     * Seed used for all generated data.
+     */
+    static final long SEED = 0x5eed;
+
+    /**
+     * Not instantiable.
+     */
+    private BenchSupport() {
+    }
+
+    /**
+     * Return an alphabet string of SIZE characters: upper case letters
+     * first, then lower case letters and digits, then Latin-1 and
+     * further characters.
+     */
+    static String alphabet(int size) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < size; i += 1) {
+            if (i < CHARS.length()) {
+                result.append(CHARS.charAt(i));
+            } else {
+                result.append((char) (0xc0 + i - CHARS.length()));
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Return ALPHA shuffled by RANDOM, written as a single cycle.
+     */
+    static String cycle(String alpha, Random random) {
+        List<Character> chars = new ArrayList<>();
+        for (char c : alpha.toCharArray()) {
+            chars.add(c);
+        }
+        Collections.shuffle(chars, random);
+        StringBuilder result = new StringBuilder("(");
+        for (char c : chars) {
+            result.append(c);
+        }
+        return result.append(')').toString();
+    }
+
+    /**
+     * Return a reflector wiring for ALPHA: random pairs, with the last
+     * character left alone if ALPHA has odd length.
+     */
+    static String reflector(String alpha, Random random) {
+        String shuffled = cycle(alpha, random);
+        StringBuilder result = new StringBuilder();
+        for (int i = 1; i + 1 < shuffled.length() - 1; i += 2) {
+            result.append('(').append(shuffled, i, i + 2).append(") ");
+        }
+        return result.toString().trim();
+    }
+
+    /**
+     * Return the text of a configuration file for an alphabet of SIZE
+     * characters and ROTORS slots, with twice as many rotors in its
+     * catalogue as slots.
+     */
+    static String config(int size, int rotors) {
+        Random random = new Random(SEED);
+        String alpha = alphabet(size);
+        StringBuilder result = new StringBuilder();
+        result.append(alpha).append('\n');
+        result.append(rotors).append(' ').append(pawls(rotors)).append('\n');
+        for (int i = 0; i < 2 * rotors; i += 1) {
+            char notch = alpha.charAt(random.nextInt(size));
+            result.append(" M").append(i).append(" M").append(notch)
+                .append("  ").append(cycle(alpha, random)).append('\n');
+        }
+        result.append(" N0 N  ").append(cycle(alpha, random)).append('\n');
+        result.append(" R0 R  ").append(reflector(alpha, random))
+            .append('\n');
+        return result.toString();
+    }
+
+    /**
+     * Return the number of pawls for a machine with ROTORS slots.
+     */
+    static int pawls(int rotors) {
+        return rotors >= 4 ? rotors - 2 : rotors - 1;
+    }
+
+    /**
+     * Return the settings line that selects the rotors of config(SIZE,
+     * ROTORS), with every rotor at setting 0 and a plugboard swapping
+     * the first few pairs of characters.
+     */
+    static String settingsLine(int size, int rotors) {
+        String alpha = alphabet(size);
+        StringBuilder result = new StringBuilder("* R0");
+        int moving = pawls(rotors);
+        if (rotors - 1 > moving) {
+            result.append(" N0");
+        }
+        for (int i = 0; i < moving; i += 1) {
+            result.append(" M").append(i);
+        }
+        result.append(' ');
+        for (int i = 1; i < rotors; i += 1) {
+            result.append(alpha.charAt(0));
+        }
+        for (int i = 0; i + 1 < Math.min(size, 12); i += 2) {
+            result.append(" (").append(alpha, i, i + 2).append(')');
+        }
+        return result.toString();
+    }
+
+    /**
+     * Return a Machine built from config(SIZE, ROTORS) and set up by
+     * settingsLine(SIZE, ROTORS).
+     */
+    static Machine machine(int size, int rotors) {
+        String[] lines = config(size, rotors).split("\n");
+        Alphabet alpha = new Alphabet(lines[0]);
+        List<Rotor> all = new ArrayList<>();
+        for (int i = 2; i < lines.length; i += 1) {
+            String line = lines[i].trim();
+            String[] info = line.substring(0, line.indexOf('(')).split(" ");
+            Permutation perm =
+                new Permutation(line.substring(line.indexOf('(')), alpha);
+            switch (info[1].charAt(0)) {
+            case 'M':
+                all.add(new MovingRotor(info[0], perm, info[1].substring(1)));
+                break;
+            case 'N':
+                all.add(new FixedRotor(info[0], perm));
+                break;
+            default:
+                all.add(new Reflector(info[0], perm));
+                break;
+            }
+        }
+        Machine machine = new Machine(alpha, rotors, pawls(rotors), all);
+        String settings = settingsLine(size, rotors);
+        String[] fields = settings.substring(0, settings.indexOf('('))
+            .trim().split(" ");
+        String[] names = new String[rotors];
+        System.arraycopy(fields, 1, names, 0, rotors);
+        machine.insertRotors(names);
+        machine.setRotors(fields[rotors + 1]);
+        machine.setPlugboard(
+            new Permutation(settings.substring(settings.indexOf('(')), alpha));
+        return machine;
+    }
+
+    /**
+     * Return a message of LENGTH characters drawn from the alphabet of
+     * SIZE characters, with a space after every five.
+     */
+    static String message(int size, int length) {
+        Random random = new Random(SEED);
+        String alpha = alphabet(size);
+        char[] result = new char[length];
+        for (int i = 0; i < length; i += 1) {
+            result[i] = i % 6 == 5 ? ' '
+                : alpha.charAt(random.nextInt(size));
+        }
+        return new String(result);
+    }
+
+    /**
+     * Write to a new temporary file, and return its path, an input for
+     * Main with SECTIONS settings lines for config(SIZE, ROTORS), each
+     * followed by LINES message lines of 60 characters.
+     */
+    static Path input(int size, int rotors, int sections, int lines)
+        throws IOException {
+        String settings = settingsLine(size, rotors);
+        String line = message(size, 60);
+        StringBuilder result = new StringBuilder();
+        for (int s = 0; s < sections; s += 1) {
+            result.append(settings).append('\n');
+            for (int i = 0; i < lines; i += 1) {
+                result.append(line).append('\n');
+            }
+        }
+        return write("input", result.toString());
+    }
+
+    /**
+     * Write TEXT to a new temporary file whose name starts with PREFIX,
+     * to be deleted on exit, and return its path.
+     */
+    static Path write(String prefix, String text) throws IOException {
+        Path result = Files.createTempFile("enigma-" + prefix, ".txt");
+        result.toFile().deleteOnExit();
+        Files.writeString(result, text, Charset.defaultCharset());
+        return result;
+    }
+}
@@ -0,0 +1,119 @@
+package enigma;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Whole-machine conversion, one keystroke at a time and a message at a
+ * time, across message lengths, numbers of rotors and alphabet sizes.
+ * The machine keeps stepping from one invocation to the next, so the
+ * measurements include the carries into slower rotors in proportion.
+ *
+ * @author Aishik Bhattacharyya
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MachineBenchmark {
+
+    /**
+     * Number of characters in the alphabet.
+     */
+    @Param({"26", "62", "200"})
+    private int size;
+
+    /**
+     * Number of rotor slots, including the reflector.
+     */
+    @Param({"3", "5", "8"})
+    private int rotors;
+
+    /**
+     * Number of characters in each message.
+     */
+    @Param({"100", "10000", "1000000"})
+    private int length;
+
+    /**
+     * The machine being measured.
+     */
+    private Machine _machine;
+
+    /**
+     * The message to convert.
+     */
+    private String _message;
+
+    /**
+     * The message as indices, spaces excluded.
+     */
+    private int[] _indices;
+
+    /**
+     * Destination for bulk conversion.
+     */
+    private char[] _out;
+
+    /**
+     * Build the machine and message.
+     */
+    @Setup
+    public void setup() {
+        _machine = BenchSupport.machine(size, rotors);
+        _message = BenchSupport.message(size, length);
+        _indices = _message.replace(" ", "").chars()
+            .map(c -> _machine.alphabet().toInt((char) c)).toArray();
+        _out = new char[length];
+    }
+
+    /**
+     * Convert the message one index at a time with convert(int).
+     */
+    @Benchmark
+    public void convertInt(Blackhole sink) {
+        for (int c : _indices) {
+            sink.consume(_machine.convert(c));
+        }
+    }
+
+    /**
+     * Convert the message as a String.
+     */
+    @Benchmark
+    public String convertString() {
+        return _machine.convert(_message);
+    }
+
+    /**
+     * Convert the message into a reused array.
+     */
+    @Benchmark
+    public char[] convertChars() {
+        char[] in = _message.toCharArray();
+        _machine.convert(in, 0, in.length, _out);
+        return _out;
+    }
+
+    /**
+     * Convert the message with convertParallel.
+     */
+    @Benchmark
+    public String convertParallel() {
+        return _machine.convertParallel(_message);
+    }
+}
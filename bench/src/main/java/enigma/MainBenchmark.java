@@ -0,0 +1,101 @@
+package enigma;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end runs of Main on generated files: reading the configuration,
+ * parsing each settings line, converting and printing in groups of five.
+ *
+ * @author Aishik Bhattacharyya
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MainBenchmark {
+
+    /**
+     * Number of characters in the alphabet.
+     */
+    @Param({"26", "62"})
+    private int size;
+
+    /**
+     * Number of settings lines in the input.
+     */
+    @Param({"1", "100"})
+    private int sections;
+
+    /**
+     * Number of 60-character message lines in each section.
+     */
+    @Param({"10", "1000"})
+    private int lines;
+
+    /**
+     * Options passed to Main before the file names: "" for the default
+     * streaming mode, or "--mapped" or "--batch".
+     */
+    @Param({"", "--mapped", "--batch"})
+    private String mode;
+
+    /**
+     * Configuration file.
+     */
+    private Path _config;
+
+    /**
+     * Input file.
+     */
+    private Path _input;
+
+    /**
+     * Output file, overwritten by each invocation.
+     */
+    private Path _output;
+
+    /**
+     * Write the configuration and input files.
+     */
+    @Setup
+    public void setup() throws IOException {
+        _config = BenchSupport.write("conf",
+                                     BenchSupport.config(size, 5));
+        _input = BenchSupport.input(size, 5, sections, lines);
+        _output = Files.createTempFile("enigma-output", ".txt");
+        _output.toFile().deleteOnExit();
+        Files.writeString(_output, "", Charset.defaultCharset());
+    }
+
+    /**
+     * Run Main once over the input.
+     */
+    @Benchmark
+    public void main() {
+        if (mode.isEmpty()) {
+            Main.main(_config.toString(), _input.toString(),
+                      _output.toString());
+        } else {
+            Main.main(mode, _config.toString(), _input.toString(),
+                      _output.toString());
+        }
+    }
+}
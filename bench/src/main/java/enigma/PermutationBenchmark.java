@@ -0,0 +1,100 @@
+package enigma;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Forward and inverse lookups through a Permutation made of a single
+ * cycle.
+ *
+ * @author Aishik Bhattacharyya
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermutationBenchmark {
+
+    /**
+     * Number of characters in the alphabet.
+     */
+    @Param({"26", "62", "200"})
+    private int size;
+
+    /**
+     * The permutation being measured.
+     */
+    private Permutation _perm;
+
+    /**
+     * The characters of its alphabet.
+     */
+    private char[] _chars;
+
+    /**
+     * Build the permutation.
+     */
+    @Setup
+    public void setup() {
+        String chars = BenchSupport.alphabet(size);
+        _perm = new Permutation(
+            BenchSupport.cycle(chars, new Random(BenchSupport.SEED)),
+            new Alphabet(chars));
+        _chars = chars.toCharArray();
+    }
+
+    /**
+     * Permute every index.
+     */
+    @Benchmark
+    public void permuteInt(Blackhole sink) {
+        for (int i = 0; i < size; i += 1) {
+            sink.consume(_perm.permute(i));
+        }
+    }
+
+    /**
+     * Invert every index.
+     */
+    @Benchmark
+    public void invertInt(Blackhole sink) {
+        for (int i = 0; i < size; i += 1) {
+            sink.consume(_perm.invert(i));
+        }
+    }
+
+    /**
+     * Permute every character.
+     */
+    @Benchmark
+    public void permuteChar(Blackhole sink) {
+        for (char c : _chars) {
+            sink.consume(_perm.permute(c));
+        }
+    }
+
+    /**
+     * Invert every character.
+     */
+    @Benchmark
+    public void invertChar(Blackhole sink) {
+        for (char c : _chars) {
+            sink.consume(_perm.invert(c));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package enigma;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Conversion through a single MovingRotor, including the setting changes
+ * that the machine makes between keystrokes.
+ *
+ * @author Aishik Bhattacharyya
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RotorBenchmark {
+
+    /**
+     * Number of characters in the alphabet.
+     */
+    @Param({"26", "62", "200"})
+    private int size;
+
+    /**
+     * The rotor being measured.
+     */
+    private Rotor _rotor;
+
+    /**
+     * Build the rotor from the first moving rotor of the generated
+     * machine.
+     */
+    @Setup
+    public void setup() {
+        _rotor = BenchSupport.machine(size, 3).getRotor(2);
+    }
+
+    /**
+     * Convert every index forward at the current setting.
+     */
+    @Benchmark
+    public void convertForward(Blackhole sink) {
+        for (int i = 0; i < size; i += 1) {
+            sink.consume(_rotor.convertForward(i));
+        }
+    }
+
+    /**
+     * Convert every index backward at the current setting.
+     */
+    @Benchmark
+    public void convertBackward(Blackhole sink) {
+        for (int i = 0; i < size; i += 1) {
+            sink.consume(_rotor.convertBackward(i));
+        }
+    }
+
+    /**
+     * Advance the rotor and convert one index each way, as the fast
+     * rotor does for every keystroke.
+     */
+    @Benchmark
+    public int advanceAndConvert() {
+        _rotor.advance();
+        return _rotor.convertBackward(_rotor.convertForward(0));
+    }
+
+    /**
+     * Test whether the rotor is at a notch.
+     */
+    @Benchmark
+    public boolean atNotch() {
+        _rotor.advance();
+        return _rotor.atNotch();
+    }
+}
@@ -0,0 +1,163 @@
+package enigma;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Contention on EnigmaService from 1 to 64 threads converting at once,
+ * each call setting up a machine from a settings line and converting one
+ * message.  The locked benchmarks do the same work on a single Machine
+ * shared under a lock, the alternative that callers would otherwise
+ * write themselves.
+ *
+ * @author Aishik Bhattacharyya
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceBenchmark {
+
+    /**
+     * Number of characters in the alphabet.
+     */
+    @Param({"26"})
+    private int size;
+
+    /**
+     * Number of characters in each message.
+     */
+    @Param({"25", "1000"})
+    private int length;
+
+    /**
+     * The service being measured.
+     */
+    private EnigmaService _service;
+
+    /**
+     * The machine shared by the locked benchmarks.
+     */
+    private Machine _machine;
+
+    /**
+     * Settings line for each call.
+     */
+    private String _settings;
+
+    /**
+     * The message to convert.
+     */
+    private String _message;
+
+    /**
+     * Write the configuration and build the service and machine.
+     */
+    @Setup
+    public void setup() throws IOException {
+        String config =
+            BenchSupport.write("conf", BenchSupport.config(size, 5))
+            .toString();
+        _service = new EnigmaService(config);
+        _machine = ConfigReader.readConfig(config);
+        _settings = BenchSupport.settingsLine(size, 5);
+        _message = BenchSupport.message(size, length);
+    }
+
+    /**
+     * Convert the message with the shared machine, under its lock.
+     */
+    private String locked() {
+        synchronized (_machine) {
+            ConfigReader.configure(_machine, _settings);
+            return _machine.convert(_message);
+        }
+    }
+
+    /**
+     * Convert with the service from one thread.
+     */
+    @Benchmark
+    @Threads(1)
+    public String service1() {
+        return _service.convert(_settings, _message);
+    }
+
+    /**
+     * Convert with the service from 4 threads.
+     */
+    @Benchmark
+    @Threads(4)
+    public String service4() {
+        return _service.convert(_settings, _message);
+    }
+
+    /**
+     * Convert with the service from 16 threads.
+     */
+    @Benchmark
+    @Threads(16)
+    public String service16() {
+        return _service.convert(_settings, _message);
+    }
+
+    /**
+     * Convert with the service from 64 threads.
+     */
+    @Benchmark
+    @Threads(64)
+    public String service64() {
+        return _service.convert(_settings, _message);
+    }
+
+    /**
+     * Convert with the locked machine from one thread.
+     */
+    @Benchmark
+    @Threads(1)
+    public String locked1() {
+        return locked();
+    }
+
+    /**
+     * Convert with the locked machine from 4 threads.
+     */
+    @Benchmark
+    @Threads(4)
+    public String locked4() {
+        return locked();
+    }
+
+    /**
+     * Convert with the locked machine from 16 threads.
+     */
+    @Benchmark
+    @Threads(16)
+    public String locked16() {
+        return locked();
+    }
+
+    /**
+     * Convert with the locked machine from 64 threads.
+     */
+    @Benchmark
+    @Threads(64)
+    public String locked64() {
+        return locked();
+    }
+}
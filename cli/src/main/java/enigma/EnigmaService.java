@@ -0,0 +1,52 @@
+package enigma;
+
+/**
+ * Encryption and decryption with one Enigma configuration, for use by
+ * any number of threads at once.  Each call is independent of all
+ * others: it borrows a machine from a pool, sets it up from the given
+ * settings line, converts the message and returns the machine.  The
+ * pool takes no locks, and holds as many machines as there have been
+ * calls in progress at once.
+ *
+ * @author Aishik Bhattacharyya
+ */
+public final class EnigmaService {
+
+    /**
+     * A service for the machine described by the configuration file
+     * named CONFIG, in the format read by Main.  Throws EnigmaException
+     * if CONFIG cannot be read or is malformed.
+     */
+    public EnigmaService(String config) {
+        this(ConfigReader.readConfig(config));
+    }
+
+    /**
+     * A service for copies of MACHINE, which must not be used otherwise.
+     */
+    EnigmaService(Machine machine) {
+        _pool = new MachinePool(machine);
+    }
+
+    /**
+     * Return the conversion of MESSAGE by the machine set up according to
+     * SETTINGS, a settings line as in the input to Main (for example,
+     * "* B Beta III IV I AXLE (HQ) (EX)").  Characters of MESSAGE that
+     * are not in the machine's alphabet, such as spaces, are copied
+     * unchanged.  Throws EnigmaException if SETTINGS is malformed.
+     */
+    public String convert(String settings, String message) {
+        Machine machine = _pool.borrow();
+        try {
+            ConfigReader.configure(machine, settings.strip());
+            return machine.convert(message);
+        } finally {
+            _pool.release(machine);
+        }
+    }
+
+    /**
+     * Machines ready for use.
+     */
+    private final MachinePool _pool;
+}
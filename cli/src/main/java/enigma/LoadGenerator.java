@@ -0,0 +1,196 @@
+package enigma;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+import static enigma.EnigmaException.*;
+
+/**
+ * Measures the throughput and latency of a running Server.  Usage:
+ *
+ *     java enigma.LoadGenerator ADDRESS REQUEST CONNECTIONS COUNT DEPTH
+ *
+ * ADDRESS is the server's address, as given to Main --server.  REQUEST
+ * names a file whose first two lines, a settings line and a message,
+ * form the request sent.  CONNECTIONS connections each send it COUNT
+ * times, with at most DEPTH requests outstanding on each connection.
+ *
+ * @author Aishik Bhattacharyya
+ */
+public final class LoadGenerator {
+
+    /**
+     * Run the load described by ARGS (see the class comment) and print
+     * its results on the standard output.
+     */
+    public static void main(String... args) {
+        try {
+            if (args.length != 5) {
+                throw error("Usage: java enigma.LoadGenerator ADDRESS REQUEST "
+                            + "CONNECTIONS COUNT DEPTH");
+            }
+            new LoadGenerator(args[0], request(args[1]),
+                              Integer.parseInt(args[3]),
+                              Integer.parseInt(args[4]))
+                .run(Integer.parseInt(args[2]));
+            return;
+        } catch (NumberFormatException excp) {
+            System.err.printf("Error: bad number: %s%n", excp.getMessage());
+        } catch (EnigmaException excp) {
+            System.err.printf("Error: %s%n", excp.getMessage());
+        }
+        System.exit(1);
+    }
+
+    /**
+     * A load generator sending REQUEST to the server at ADDRESS COUNT
+     * times per connection, with at most DEPTH outstanding.
+     */
+    LoadGenerator(String address, byte[] request, int count, int depth) {
+        if (count < 0 || depth < 1) {
+            throw error("bad request count or depth");
+        }
+        _address = address;
+        _request = request;
+        _count = count;
+        _depth = depth;
+    }
+
+    /**
+     * Return the request formed by the first two lines of the file named
+     * NAME, each terminated by a newline.
+     */
+    private static byte[] request(String name) {
+        try {
+            List<String> lines = Files.readAllLines(Paths.get(name));
+            if (lines.size() < 2) {
+                throw error("%s does not contain a request", name);
+            }
+            return (lines.get(0) + "\n" + lines.get(1) + "\n")
+                .getBytes(StandardCharsets.UTF_8);
+        } catch (IOException excp) {
+            throw error("could not open %s", name);
+        }
+    }
+
+    /**
+     * Run CONNECTIONS connections concurrently to completion and print
+     * the results.
+     */
+    void run(int connections) {
+        List<Thread> threads = new ArrayList<>();
+        List<SocketChannel> channels = new ArrayList<>();
+        for (int i = 0; i < connections; i += 1) {
+            channels.add(Server.connect(_address));
+        }
+        long start = System.nanoTime();
+        for (SocketChannel channel : channels) {
+            Thread thread = new Thread(() -> drive(channel));
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException excp) {
+                throw error("interrupted");
+            }
+        }
+        double seconds = (System.nanoTime() - start) * 1e-9;
+        System.out.printf("requests: %d%nerrors: %d%nseconds: %.3f%n"
+                          + "requests/second: %.0f%n",
+                          _latency.count(), _errors.sum(), seconds,
+                          _latency.count() / seconds);
+        for (Map.Entry<String, Long> e : _latency.summary().entrySet()) {
+            if (e.getKey().equals("count")) {
+                continue;
+            }
+            System.out.printf("latency %s: %.1f us%n", e.getKey(),
+                              e.getValue() * 1e-3);
+        }
+    }
+
+    /**
+     * Send _count requests on CHANNEL from a second thread, reading and
+     * timing the responses in this one, then close CHANNEL.
+     */
+    private void drive(SocketChannel channel) {
+        Semaphore window = new Semaphore(_depth);
+        ConcurrentLinkedQueue<Long> sent = new ConcurrentLinkedQueue<>();
+        Thread writer = new Thread(() -> {
+            ByteBuffer buf = ByteBuffer.wrap(_request);
+            try {
+                for (int i = 0; i < _count; i += 1) {
+                    window.acquire();
+                    sent.add(System.nanoTime());
+                    buf.rewind();
+                    while (buf.hasRemaining()) {
+                        channel.write(buf);
+                    }
+                }
+            } catch (IOException | InterruptedException excp) {
+                _errors.increment();
+            }
+        });
+        writer.start();
+        try {
+            Server.LineReader in = new Server.LineReader(channel);
+            for (int i = 0; i < _count; i += 1) {
+                String response = in.readLine();
+                if (response == null) {
+                    throw error("connection closed by server");
+                }
+                _latency.record(System.nanoTime() - sent.remove());
+                window.release();
+                if (response.startsWith("Error:")) {
+                    _errors.increment();
+                }
+            }
+            writer.join();
+            channel.close();
+        } catch (IOException | InterruptedException | EnigmaException excp) {
+            _errors.increment();
+            writer.interrupt();
+        }
+    }
+
+    /**
+     * Address of the server.
+     */
+    private final String _address;
+
+    /**
+     * The request sent, as bytes.
+     */
+    private final byte[] _request;
+
+    /**
+     * Requests sent on each connection.
+     */
+    private final int _count;
+
+    /**
+     * Largest number of outstanding requests on each connection.
+     */
+    private final int _depth;
+
+    /**
+     * Times from sending each request to receiving its response.
+     */
+    private final LatencyHistogram _latency = new LatencyHistogram();
+
+    /**
+     * Number of failed connections and responses reporting errors.
+     */
+    private final LongAdder _errors = new LongAdder();
+}
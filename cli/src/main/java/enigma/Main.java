@@ -0,0 +1,797 @@
+package enigma;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static enigma.EnigmaException.*;
+
+/**
+ * Enigma simulator.
+ *
+ * @author Aishik Bhattacharyya
+ */
+public final class Main {
+
+    /**
+     * Process a sequence of encryptions and decryptions, as
+     * specified by ARGS, where 1 <= ARGS.length <= 3.
+     * ARGS[0] is the name of a configuration file.
+     * ARGS[1] is optional; when present, it names an input file
+     * containing messages.  Otherwise, input comes from the standard
+     * input.  ARGS[2] is optional; when present, it names an output
+     * file for processed messages.  Otherwise, output goes to the
+     * standard output. Exits normally if there are no errors in the input;
+     * otherwise with code 1.  With --mapped, ARGS[1] and ARGS[2] must both
+     * be present, and are memory-mapped rather than read and written
+     * through streams.  With --batch, the sections of the input that
+     * start at each settings line are processed concurrently.  With
+     * --metrics, counts and timings of the work are registered as a JMX
+     * MBean and printed on the standard error periodically and at the end.
+     * If the environment variable ENIGMA_CONFIG_CACHE names a directory,
+     * compiled configurations are kept there and reused by later runs.
+     * With --server, ARGS[1] is instead a port number on the loopback
+     * interface or "unix:" and the path of a Unix domain socket, on which
+     * messages are accepted from clients until the process is killed
+     * (see Server).
+     */
+    public static void main(String... args) {
+        try {
+            HashSet<String> options = new HashSet<>();
+            List<String> files = parseArgs(args, options);
+            if (files == null
+                || options.contains("--mapped")
+                   && (files.size() != 3 || options.contains("--batch"))
+                || options.contains("--server")
+                   && (files.size() != 2 || options.size() > 2
+                       || !options.contains("--metrics")
+                          && options.size() > 1)) {
+                throw error("Usage: java enigma.Main [--verbose] [--metrics] "
+                        + "[--mapped | --batch] CONFIG [INPUT [OUTPUT]]%n"
+                        + "       java enigma.Main [--metrics] --server "
+                        + "CONFIG ADDRESS");
+            }
+
+            _verbose = options.contains("--verbose");
+            _metricsOption = options.contains("--metrics");
+            _mapped = options.contains("--mapped");
+            _batch = options.contains("--batch") && !_verbose;
+            if (options.contains("--server")) {
+                new Main(files.subList(0, 1)).serve(files.get(1));
+            } else {
+                new Main(files).process();
+            }
+            return;
+        } catch (EnigmaException excp) {
+            System.err.printf("Error: %s%n", excp.getMessage());
+        }
+        System.exit(1);
+    }
+
+    /**
+     * Return the file names in ARGS, adding the options that precede
+     * them to OPTIONS.  Options are the members of OPTION_NAMES, each
+     * given at most once; an argument "--" ends them.  Returns null if
+     * ARGS contain an unknown or repeated option, or do not name one to
+     * three files.
+     */
+    private static List<String> parseArgs(String[] args,
+                                          Collection<String> options) {
+        int k;
+        for (k = 0; k < args.length && args[k].startsWith("--"); k += 1) {
+            if (args[k].equals("--")) {
+                k += 1;
+                break;
+            }
+            if (!OPTION_NAMES.contains(args[k]) || !options.add(args[k])) {
+                return null;
+            }
+        }
+        List<String> result = Arrays.asList(args).subList(k, args.length);
+        if (result.isEmpty() || result.size() > 3) {
+            return null;
+        }
+        return result;
+    }
+
+    /**
+     * Open the necessary files for non-option arguments ARGS (see comment
+     * on main).
+     */
+    Main(List<String> args) {
+        _configText = readFile(args.get(0));
+
+        if (_mapped) {
+            _mappedInput = openFile(args.get(1), StandardOpenOption.READ);
+            _mappedOutput = openFile(args.get(2), StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        } else if (args.size() > 1) {
+            _input = getChannel(args.get(1));
+        } else {
+            _input = Channels.newChannel(System.in);
+        }
+
+        if (_mapped) {
+            _output = null;
+        } else if (args.size() > 2) {
+            _output = new OutputStreamWriter(getOutput(args.get(2)));
+        } else {
+            _output = new OutputStreamWriter(System.out);
+        }
+    }
+
+    /**
+     * A processor for one batch of sections of the input, using MACHINE
+     * and writing to OUTPUT.
+     */
+    private Main(Machine machine, Writer output) {
+        _machine = machine;
+        _alphabet = machine.alphabet();
+        _output = output;
+    }
+
+    /**
+     * Return the contents of the file named NAME.
+     */
+    private static byte[] readFile(String name) {
+        try {
+            return Files.readAllBytes(Paths.get(name));
+        } catch (IOException excp) {
+            throw error("could not open %s", name);
+        }
+    }
+
+    /**
+     * Return a channel reading from the file named NAME.
+     */
+    private ReadableByteChannel getChannel(String name) {
+        try {
+            return Files.newByteChannel(Paths.get(name));
+        } catch (IOException excp) {
+            throw error("could not open %s", name);
+        }
+    }
+
+    /**
+     * Return a FileChannel on the file named NAME, opened with OPTIONS.
+     */
+    private FileChannel openFile(String name, OpenOption... options) {
+        try {
+            return FileChannel.open(Paths.get(name), options);
+        } catch (IOException excp) {
+            throw error("could not open %s", name);
+        }
+    }
+
+    /**
+     * Return an OutputStream writing to the file named NAME.
+     */
+    private OutputStream getOutput(String name) {
+        try {
+            return Files.newOutputStream(Paths.get(name));
+        } catch (IOException excp) {
+            throw error("could not open %s", name);
+        }
+    }
+
+    /**
+     * Configure an Enigma machine from the contents of configuration
+     * file _config and apply it to the messages in _input, sending the
+     * results to _output.
+     */
+    private void process() {
+        try {
+            long start = System.nanoTime();
+            _machine = readConfig();
+            if (_metricsOption) {
+                startMetrics(System.nanoTime() - start);
+            }
+            if (_mapped) {
+                processMapped();
+                stopMetrics();
+                return;
+            }
+            ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+            CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+            CharsetDecoder decoder = Charset.defaultCharset().newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            boolean eof = false;
+            while (!eof) {
+                eof = _input.read(bytes) < 0;
+                bytes.flip();
+                CoderResult result;
+                do {
+                    result = decoder.decode(bytes, chars, eof);
+                    chars.flip();
+                    feed(chars.array(), chars.position(), chars.limit());
+                    chars.clear();
+                } while (result.isOverflow());
+                bytes.compact();
+            }
+            while (decoder.flush(chars).isOverflow()) {
+                chars.flip();
+                feed(chars.array(), chars.position(), chars.limit());
+                chars.clear();
+            }
+            chars.flip();
+            feed(chars.array(), chars.position(), chars.limit());
+            if (_batch) {
+                submitBatch();
+                while (!_pending.isEmpty()) {
+                    writeBatch();
+                }
+            } else if (_lineStarted) {
+                endLine();
+            }
+            newLine();
+            flushOutput();
+            _output.flush();
+            stopMetrics();
+        } catch (Exception e) {
+            throw new EnigmaException("Error in processing input or output");
+        }
+    }
+
+    /**
+     * Configure an Enigma machine from the contents of configuration
+     * file _config and serve requests to convert messages with it at
+     * ADDRESS until the process is killed.
+     */
+    private void serve(String address) {
+        long start = System.nanoTime();
+        _machine = readConfig();
+        if (_metricsOption) {
+            startMetrics(System.nanoTime() - start);
+        }
+        new Server(_machine).serve(Server.open(address));
+    }
+
+    /**
+     * Start recording metrics for _machine and its copies, given that
+     * reading the configuration took READNANOS nanoseconds.  The metrics
+     * are registered as an MBean and printed on the standard error every
+     * METRICS_PERIOD seconds.
+     */
+    private void startMetrics(long readNanos) {
+        MachineMetrics metrics = new MachineMetrics(_machine.numRotors());
+        metrics.recordReadConfig(readNanos);
+        metrics.register(METRICS_NAME);
+        _machine.setMetrics(metrics);
+        _metricsDumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread result = new Thread(r, "enigma-metrics");
+            result.setDaemon(true);
+            return result;
+        });
+        _metricsDumper.scheduleAtFixedRate(() -> System.err.print(metrics),
+                                           METRICS_PERIOD, METRICS_PERIOD,
+                                           TimeUnit.SECONDS);
+    }
+
+    /**
+     * If metrics are being recorded, stop the periodic printing and print
+     * them one last time on the standard error.
+     */
+    private void stopMetrics() {
+        if (_metricsDumper != null) {
+            _metricsDumper.shutdownNow();
+            System.err.print(_machine.metrics());
+        }
+    }
+
+    /**
+     * Process the input characters BUF[START .. END-1], either directly
+     * or, with --batch, by adding them to the current batch.
+     */
+    private void feed(char[] buf, int start, int end) {
+        if (_batch) {
+            splitChars(buf, start, end);
+        } else {
+            processChars(buf, start, end);
+        }
+    }
+
+    /**
+     * Add the input characters BUF[START .. END-1] to _batchText,
+     * first submitting the batch collected so far if it has reached
+     * BATCH_SIZE and a settings line starts.  Each settings line sets
+     * up the machine completely, so the batches are independent.
+     */
+    private void splitChars(char[] buf, int start, int end) {
+        for (int i = start; i < end; i += 1) {
+            char c = buf[i];
+            if (isLineEnd(c)) {
+                _lineStarted = false;
+            } else if (!_lineStarted && !Character.isWhitespace(c)) {
+                _lineStarted = true;
+                if (c == '*' && _batchText.length() >= BATCH_SIZE) {
+                    _batchText.append(buf, start, i - start);
+                    start = i;
+                    submitBatch();
+                }
+            }
+        }
+        _batchText.append(buf, start, end - start);
+    }
+
+    /**
+     * Start processing _batchText on a worker thread, and clear it.  If
+     * too many batches are outstanding, first write the oldest.
+     */
+    private void submitBatch() {
+        if (_batchText.length() == 0) {
+            return;
+        }
+        char[] text = new char[_batchText.length()];
+        _batchText.getChars(0, text.length, text, 0);
+        _batchText.setLength(0);
+        if (_workerMachines == null) {
+            _workerMachines = ThreadLocal.withInitial(_machine::copy);
+        }
+        ThreadLocal<Machine> machines = _workerMachines;
+        _pending.add(ForkJoinPool.commonPool().submit(() ->
+            convertSection(machines.get(), text)));
+        while (_pending.size() > MAX_PENDING_BATCHES) {
+            writeBatch();
+        }
+    }
+
+    /**
+     * Return the output for TEXT, a section of input that begins with a
+     * settings line, converted by M.  The output has the same form as
+     * the output of the whole program.
+     */
+    static char[] convertSection(Machine m, char[] text) {
+        CharArrayWriter output = new CharArrayWriter();
+        Main section = new Main(m, output);
+        section.processChars(text, 0, text.length);
+        if (section._lineStarted) {
+            section.endLine();
+        }
+        section.flushOutput();
+        return output.toCharArray();
+    }
+
+    /**
+     * Wait for the oldest outstanding batch and write its output.
+     */
+    private void writeBatch() {
+        try {
+            char[] text = _pending.remove().get();
+            for (char c : text) {
+                print(c);
+            }
+        } catch (ExecutionException excp) {
+            if (excp.getCause() instanceof EnigmaException) {
+                throw (EnigmaException) excp.getCause();
+            }
+            throw error("batch failed: %s", excp.getCause());
+        } catch (InterruptedException excp) {
+            throw error("interrupted");
+        }
+    }
+
+    /**
+     * Process _mappedInput into _mappedOutput, mapping each file a window
+     * at a time so that files larger than the heap, or than 2GB, can be
+     * handled.  Bytes are read and written as ISO-8859-1 characters, so
+     * any byte that is not in the (ASCII) alphabet is copied unchanged.
+     * The output file is cut to the bytes actually written even if
+     * processing fails partway, rather than left the size of the last
+     * window mapped.
+     */
+    private void processMapped() throws IOException {
+        if (!_alphabet.ascii()) {
+            throw error("--mapped requires an ASCII alphabet");
+        }
+        byte[] bytes = new byte[BUFFER_SIZE];
+        char[] chars = new char[BUFFER_SIZE];
+        try {
+            long size = _mappedInput.size();
+            for (long base = 0; base < size; base += MAP_WINDOW) {
+                MappedByteBuffer window = _mappedInput.map(
+                        FileChannel.MapMode.READ_ONLY, base,
+                        Math.min(MAP_WINDOW, size - base));
+                while (window.hasRemaining()) {
+                    int n = Math.min(window.remaining(), BUFFER_SIZE);
+                    window.get(bytes, 0, n);
+                    for (int i = 0; i < n; i += 1) {
+                        chars[i] = (char) (bytes[i] & 0xff);
+                    }
+                    processChars(chars, 0, n);
+                }
+            }
+            if (_lineStarted) {
+                endLine();
+            }
+            newLine();
+            flushOutput();
+        } finally {
+            _mappedInput.close();
+            if (_mappedWindow != null) {
+                _mappedOutput.truncate(_mappedBase
+                                       + _mappedWindow.position());
+            }
+            _mappedOutput.close();
+        }
+    }
+
+    /**
+     * Process the characters BUF[START .. END-1] of the input, which
+     * continue from wherever the previous call left off.  Blank lines are
+     * copied, settings lines are collected in _settings and applied at
+     * the end of the line, and message lines are converted in place as
+     * they arrive and then written in groups of five.
+     */
+    private void processChars(char[] buf, int start, int end) {
+        int i = start;
+        while (i < end) {
+            char c = buf[i];
+            if (_skipLineFeed) {
+                _skipLineFeed = false;
+                if (c == '\n') {
+                    i += 1;
+                    continue;
+                }
+            }
+            if (isLineEnd(c)) {
+                endLine();
+                _skipLineFeed = c == '\r';
+                i += 1;
+                continue;
+            }
+            _lineStarted = true;
+            if (_state == LINE_START) {
+                if (Character.isWhitespace(c)) {
+                    i += 1;
+                    continue;
+                }
+                _state = c == '*' ? SETTINGS : MESSAGE;
+            }
+            int j = i;
+            while (j < end && !isLineEnd(buf[j])) {
+                j += 1;
+            }
+            if (_state == SETTINGS) {
+                _settings.append(buf, i, j - i);
+            } else {
+                _machine.convert(buf, i, j - i, buf, i);
+                printMessageChars(buf, i, j);
+            }
+            i = j;
+        }
+    }
+
+    /**
+     * Finish the current input line.
+     */
+    private void endLine() {
+        if (_state == SETTINGS) {
+            ConfigReader.configure(_machine, _settings.toString().strip());
+            _settings.setLength(0);
+        } else {
+            newLine();
+        }
+        _state = LINE_START;
+        _lineStarted = false;
+        _groupSize = 0;
+    }
+
+    /**
+     * Return true iff C ends an input line.
+     */
+    private static boolean isLineEnd(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085'
+            || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * Return an Enigma machine configured from the contents of
+     * configuration file _config, reporting to a VerboseTracer on the
+     * standard error if --verbose was given.
+     */
+    private Machine readConfig() {
+        ConversionTracer tracer = _verbose
+            ? new VerboseTracer(System.err) : ConversionTracer.NONE;
+        Machine result = ConfigReader.readConfig(_configText, tracer);
+        _alphabet = result.alphabet();
+        return result;
+    }
+
+    /**
+     * Return the non-whitespace characters of MSG in groups of five
+     * separated by blanks, as on an output line.
+     */
+    static String group(String msg) {
+        StringBuilder result = new StringBuilder(msg.length() * 6 / 5 + 1);
+        int groupSize = 0;
+        for (int i = 0; i < msg.length(); i += 1) {
+            char c = msg.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                if (groupSize == GROUP_SIZE) {
+                    result.append(' ');
+                    groupSize = 0;
+                }
+                result.append(c);
+                groupSize += 1;
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Print the non-whitespace characters of MSG[START .. END-1] in
+     * groups of five, continuing the groups of the current output line.
+     */
+    private void printMessageChars(char[] msg, int start, int end) {
+        for (int i = start; i < end; i += 1) {
+            char c = msg[i];
+            if (!Character.isWhitespace(c)) {
+                if (_groupSize == GROUP_SIZE) {
+                    print(' ');
+                    _groupSize = 0;
+                }
+                print(c);
+                _groupSize += 1;
+            }
+        }
+    }
+
+    /**
+     * Add C to the output buffer.
+     */
+    private void print(char c) {
+        if (_outLength == _outBuffer.length) {
+            flushOutput();
+        }
+        _outBuffer[_outLength] = c;
+        _outLength += 1;
+    }
+
+    /**
+     * Add a line separator to the output buffer.
+     */
+    private void newLine() {
+        for (int i = 0; i < LINE_SEPARATOR.length(); i += 1) {
+            print(LINE_SEPARATOR.charAt(i));
+        }
+    }
+
+    /**
+     * Write the output buffer to _output.
+     */
+    private void flushOutput() {
+        try {
+            if (_mapped) {
+                writeMapped();
+            } else {
+                _output.write(_outBuffer, 0, _outLength);
+            }
+            _outLength = 0;
+        } catch (IOException excp) {
+            throw error("could not write output");
+        }
+    }
+
+    /**
+     * Write the output buffer into _mappedOutput, mapping a further
+     * window of the file whenever the current one fills.
+     */
+    private void writeMapped() throws IOException {
+        for (int i = 0; i < _outLength; i += 1) {
+            if (_mappedWindow == null || !_mappedWindow.hasRemaining()) {
+                if (_mappedWindow != null) {
+                    _mappedBase += _mappedWindow.position();
+                }
+                _mappedWindow = _mappedOutput.map(
+                        FileChannel.MapMode.READ_WRITE, _mappedBase,
+                        MAP_WINDOW);
+            }
+            _mappedWindow.put((byte) _outBuffer[i]);
+        }
+    }
+
+    /**
+     * Alphabet used in this machine.
+     */
+    private Alphabet _alphabet;
+
+    /**
+     * Source of input messages.
+     */
+    private ReadableByteChannel _input;
+
+    /**
+     * Contents of the configuration file.
+     */
+    private byte[] _configText;
+
+    /**
+     * File for encoded/decoded messages.
+     */
+    private Writer _output;
+
+    /**
+     * Input file when --mapped is given.
+     */
+    private FileChannel _mappedInput;
+
+    /**
+     * Output file when --mapped is given.
+     */
+    private FileChannel _mappedOutput;
+
+    /**
+     * Currently mapped region of _mappedOutput, or null before the first
+     * output is written.
+     */
+    private MappedByteBuffer _mappedWindow;
+
+    /**
+     * Offset in _mappedOutput of the start of _mappedWindow.
+     */
+    private long _mappedBase;
+
+    /**
+     * Options accepted before the file names on the command line.
+     */
+    private static final List<String> OPTION_NAMES =
+        List.of("--verbose", "--metrics", "--mapped", "--batch",
+                "--server");
+
+    /**
+     * True if --verbose specified.
+     */
+    private static boolean _verbose;
+
+    /**
+     * True if --metrics specified.
+     */
+    private static boolean _metricsOption;
+
+    /**
+     * Name under which the metrics of --metrics are registered.
+     */
+    private static final String METRICS_NAME = "enigma:type=MachineMetrics";
+
+    /**
+     * Seconds between printings of the metrics of --metrics.
+     */
+    private static final long METRICS_PERIOD = 10;
+
+    /**
+     * Prints the metrics periodically with --metrics, or null.
+     */
+    private ScheduledExecutorService _metricsDumper;
+
+    /**
+     * True if --mapped specified.
+     */
+    private static boolean _mapped;
+
+    /**
+     * True if --batch specified (and --verbose not).
+     */
+    private static boolean _batch;
+
+    /**
+     * Minimum number of characters in each batch under --batch.
+     */
+    private static final int BATCH_SIZE = 1 << 16;
+
+    /**
+     * Largest number of batches to have outstanding at once.
+     */
+    private static final int MAX_PENDING_BATCHES =
+        4 * Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The input collected for the next batch.
+     */
+    private final StringBuilder _batchText = new StringBuilder();
+
+    /**
+     * Outstanding batches, oldest first.
+     */
+    private final ArrayDeque<Future<char[]>> _pending = new ArrayDeque<>();
+
+    /**
+     * Each worker thread's copy of _machine, once batches are submitted.
+     */
+    private ThreadLocal<Machine> _workerMachines;
+
+    /**
+     * Size of each region of a file mapped at one time under --mapped.
+     */
+    private static final long MAP_WINDOW = 1L << 28;
+
+    /**
+     * Size of the input and output buffers, in bytes or characters.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Number of characters in each group of output.
+     */
+    private static final int GROUP_SIZE = 5;
+
+    /**
+     * Line separator written after each output line.
+     */
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    /**
+     * Values of _state: at the start of an input line, or in a settings
+     * line, or in a message line.
+     */
+    private static final int LINE_START = 0, SETTINGS = 1, MESSAGE = 2;
+
+    /**
+     * The machine configured from _config.
+     */
+    private Machine _machine;
+
+    /**
+     * What kind of input line is being read.
+     */
+    private int _state = LINE_START;
+
+    /**
+     * True iff any character of the current input line has been read.
+     */
+    private boolean _lineStarted;
+
+    /**
+     * True iff the last character read was a carriage return, so that a
+     * following line feed belongs to the same line ending.
+     */
+    private boolean _skipLineFeed;
+
+    /**
+     * The part of the current settings line read so far.
+     */
+    private final StringBuilder _settings = new StringBuilder();
+
+    /**
+     * Number of characters in the last group of the current output line.
+     */
+    private int _groupSize;
+
+    /**
+     * Output not yet written to _output.
+     */
+    private final char[] _outBuffer = new char[BUFFER_SIZE];
+
+    /**
+     * Number of characters in _outBuffer.
+     */
+    private int _outLength;
+}
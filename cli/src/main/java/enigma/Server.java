@@ -0,0 +1,333 @@
+package enigma;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static enigma.EnigmaException.*;
+
+/**
+ * A long-running Enigma service that converts messages for clients on
+ * the same host, so that the JVM is started and the configuration read
+ * only once.  It listens on a loopback TCP port or a Unix domain socket.
+ *
+ * Each request is two lines of UTF-8 text terminated by newlines: a
+ * settings line, as in the input to Main, and a message line.  Each
+ * response is one line: the converted message in groups of five, or
+ * "Error: " followed by a description of what was wrong with the
+ * request.  A client may send any number of requests without waiting
+ * for responses; the responses come back in the order of the requests.
+ *
+ * Each request is converted in its own thread, on a Machine borrowed
+ * from a MachinePool of copies of the configured machine.  Threads are
+ * virtual where the JDK provides them, and otherwise come from a cached
+ * pool.
+ *
+ * @author Aishik Bhattacharyya
+ */
+final class Server {
+
+    /**
+     * A server whose requests are converted by copies of PROTOTYPE,
+     * which is not itself used.
+     */
+    Server(Machine prototype) {
+        _pool = new MachinePool(prototype);
+        _executor = newThreadPerTaskExecutor();
+    }
+
+    /**
+     * Return a channel bound to ADDRESS, which is either a port number
+     * on the loopback interface (0 for any free port) or "unix:" followed
+     * by the path of a Unix domain socket to create.
+     */
+    static ServerSocketChannel open(String address) {
+        try {
+            if (address.startsWith(UNIX_PREFIX)) {
+                Path path = Paths.get(address.substring(UNIX_PREFIX.length()));
+                Files.deleteIfExists(path);
+                ServerSocketChannel result =
+                    ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+                result.bind(UnixDomainSocketAddress.of(path));
+                return result;
+            }
+            ServerSocketChannel result = ServerSocketChannel.open();
+            result.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                                              Integer.parseInt(address)));
+            return result;
+        } catch (NumberFormatException excp) {
+            throw error("bad server address: %s", address);
+        } catch (IOException | UnsupportedOperationException excp) {
+            throw error("cannot listen on %s: %s", address,
+                        excp.getMessage());
+        }
+    }
+
+    /**
+     * Return a channel connected to the server listening at ADDRESS, in
+     * the form accepted by open.
+     */
+    static SocketChannel connect(String address) {
+        try {
+            SocketAddress target;
+            if (address.startsWith(UNIX_PREFIX)) {
+                target = UnixDomainSocketAddress.of(
+                    address.substring(UNIX_PREFIX.length()));
+            } else {
+                target = new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                                               Integer.parseInt(address));
+            }
+            return SocketChannel.open(target);
+        } catch (NumberFormatException excp) {
+            throw error("bad server address: %s", address);
+        } catch (IOException excp) {
+            throw error("cannot connect to %s: %s", address,
+                        excp.getMessage());
+        }
+    }
+
+    /**
+     * Accept and serve connections on CHANNEL until it is closed.
+     */
+    void serve(ServerSocketChannel channel) {
+        try {
+            while (true) {
+                SocketChannel client = channel.accept();
+                _executor.execute(() -> handle(client));
+            }
+        } catch (IOException excp) {
+            if (channel.isOpen()) {
+                throw error("server failed: %s", excp.getMessage());
+            }
+        } finally {
+            _executor.shutdown();
+        }
+    }
+
+    /**
+     * Return the response to the request consisting of SETTINGS and
+     * MESSAGE, without its line terminator.
+     */
+    String convert(String settings, String message) {
+        if (!settings.stripLeading().startsWith("*")) {
+            return "Error: request does not start with a settings line";
+        }
+        Machine machine = _pool.borrow();
+        try {
+            ConfigReader.configure(machine, settings.strip());
+            return Main.group(machine.convert(message));
+        } catch (EnigmaException excp) {
+            return "Error: " + excp.getMessage();
+        } catch (RuntimeException excp) {
+            return "Error: malformed request";
+        } finally {
+            _pool.release(machine);
+        }
+    }
+
+    /**
+     * Serve the requests arriving on CLIENT until it reaches end of
+     * input, then close it.  This thread reads requests and starts their
+     * conversions; a second thread writes the results in order, waiting
+     * when more than MAX_PIPELINED requests are outstanding.
+     */
+    private void handle(SocketChannel client) {
+        BlockingQueue<Future<String>> responses =
+            new ArrayBlockingQueue<>(MAX_PIPELINED);
+        Future<?> writer = _executor.submit(() -> {
+            writeResponses(client, responses);
+            return null;
+        });
+        try {
+            LineReader in = new LineReader(client);
+            while (true) {
+                String settings = in.readLine();
+                String message = settings == null ? null : in.readLine();
+                if (message == null) {
+                    break;
+                }
+                responses.put(CompletableFuture.supplyAsync(
+                    () -> convert(settings, message), _executor));
+            }
+            responses.put(CompletableFuture.completedFuture(null));
+            writer.get();
+        } catch (IOException | InterruptedException
+                 | ExecutionException excp) {
+            writer.cancel(true);
+        } finally {
+            try {
+                client.close();
+            } catch (IOException excp) {
+                writer.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Write the results of RESPONSES to CLIENT in order, until one of
+     * them is null.  Output is sent whenever no further response is
+     * ready, so that pipelined responses share writes.
+     */
+    private void writeResponses(SocketChannel client,
+                                BlockingQueue<Future<String>> responses)
+        throws IOException, InterruptedException, ExecutionException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        while (true) {
+            Future<String> next = responses.peek();
+            if (next == null || !next.isDone()) {
+                send(client, out);
+                next = responses.take();
+            } else {
+                responses.remove();
+            }
+            String response = next.get();
+            if (response == null) {
+                send(client, out);
+                return;
+            }
+            out.write(response.getBytes(StandardCharsets.UTF_8));
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Write the contents of OUT to CLIENT and empty OUT.
+     */
+    private static void send(SocketChannel client, ByteArrayOutputStream out)
+        throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(out.toByteArray());
+        while (buf.hasRemaining()) {
+            client.write(buf);
+        }
+        out.reset();
+    }
+
+    /**
+     * Return an executor that runs each task in a new virtual thread, if
+     * this JDK has them, or else in a cached pool of daemon threads.
+     */
+    static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod(
+                "newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException excp) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread result = new Thread(r, "enigma-server");
+                result.setDaemon(true);
+                return result;
+            });
+        }
+    }
+
+    /**
+     * Reads newline-terminated UTF-8 lines from a channel.  The channel
+     * is read directly, rather than through Channels.newInputStream,
+     * whose reads would hold a lock that the writing thread also needs.
+     */
+    static final class LineReader {
+
+        /**
+         * A reader of lines from CHANNEL.
+         */
+        LineReader(SocketChannel channel) {
+            _channel = channel;
+            _buf.flip();
+        }
+
+        /**
+         * Return the next line, without its terminator (and without a
+         * carriage return before it), or null at end of input.  A final
+         * unterminated line is returned as a line.
+         */
+        String readLine() throws IOException {
+            _line.reset();
+            while (true) {
+                while (_buf.hasRemaining()) {
+                    byte b = _buf.get();
+                    if (b == '\n') {
+                        return line();
+                    }
+                    _line.write(b);
+                }
+                _buf.clear();
+                int n = _channel.read(_buf);
+                _buf.flip();
+                if (n < 0) {
+                    return _line.size() == 0 ? null : line();
+                }
+            }
+        }
+
+        /**
+         * Return the line collected in _line.
+         */
+        private String line() {
+            String result = _line.toString(StandardCharsets.UTF_8);
+            if (result.endsWith("\r")) {
+                result = result.substring(0, result.length() - 1);
+            }
+            return result;
+        }
+
+        /**
+         * The channel read.
+         */
+        private final SocketChannel _channel;
+
+        /**
+         * Bytes read but not yet returned.
+         */
+        private final ByteBuffer _buf = ByteBuffer.allocate(BUFFER_SIZE);
+
+        /**
+         * The line being collected.
+         */
+        private final ByteArrayOutputStream _line =
+            new ByteArrayOutputStream();
+    }
+
+    /**
+     * Prefix of addresses that name Unix domain sockets.
+     */
+    static final String UNIX_PREFIX = "unix:";
+
+    /**
+     * Largest number of requests from one connection in progress at once.
+     */
+    static final int MAX_PIPELINED = 256;
+
+    /**
+     * Size of the buffer for reading requests.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Machines for converting requests.
+     */
+    private final MachinePool _pool;
+
+    /**
+     * Runs connections and conversions.
+     */
+    private final ExecutorService _executor;
+}
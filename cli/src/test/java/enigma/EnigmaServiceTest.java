@@ -0,0 +1,100 @@
+package enigma;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+
+import static org.junit.Assert.*;
+
+/**
+ * The suite of all JUnit tests for the EnigmaService class.
+ *
+ * @author
+ */
+public class EnigmaServiceTest {
+
+    /**
+     * Testing time limit.
+     */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10);
+
+    /* ***** TESTS ***** */
+
+    private static final String SETTINGS = ServerTest.SETTINGS;
+
+    private static final String MESSAGE = ServerTest.MESSAGE;
+
+    private static final String CONVERTED = "QVPQ SOK OILPUBKJ ZPISFXDW";
+
+    private EnigmaService _service;
+
+    @Before
+    public void setUp() {
+        _service = new EnigmaService(ServerTest.naval());
+    }
+
+    @Test
+    public void testConvert() {
+        assertEquals(CONVERTED, _service.convert(SETTINGS, MESSAGE));
+        assertEquals(MESSAGE, _service.convert(SETTINGS, CONVERTED));
+        assertEquals(CONVERTED, _service.convert("  " + SETTINGS, MESSAGE));
+    }
+
+    @Test
+    public void testBadSettings() {
+        String[] bad = {
+            "", "B Beta III IV I AXLE", "* B Beta III IV",
+            "* B Beta III IV X AXLE", "* B Beta III IV I AXL",
+            "* B Beta III IV I AXLE (HQ",
+        };
+        for (String settings : bad) {
+            try {
+                _service.convert(settings, MESSAGE);
+                fail("accepted " + settings);
+            } catch (EnigmaException excp) {
+                assertNotNull(excp.getMessage());
+            }
+        }
+        assertEquals(CONVERTED, _service.convert(SETTINGS, MESSAGE));
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        String[] settings = {
+            SETTINGS, "* B Beta I IV III AAAA", "* B Beta IV III I QRST (AZ)",
+            "* B Beta III I IV ZZZZ BCDE",
+        };
+        String[] expected = new String[settings.length];
+        for (int i = 0; i < settings.length; i += 1) {
+            expected[i] = _service.convert(settings[i], MESSAGE);
+        }
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t += 1) {
+            int start = t;
+            results.add(threads.submit(() -> {
+                for (int i = 0; i < 500; i += 1) {
+                    int k = (start + i) % settings.length;
+                    if (!expected[k].equals(
+                            _service.convert(settings[k], MESSAGE))) {
+                        return false;
+                    }
+                }
+                return true;
+            }));
+        }
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+        threads.shutdown();
+    }
+
+}
@@ -0,0 +1,67 @@
+package enigma;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import static org.junit.Assert.*;
+
+/**
+ * The suite of all JUnit tests for the Main class.
+ *
+ * @author
+ */
+public class MainTest {
+
+    /**
+     * Testing time limit.
+     */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /* ***** TESTS ***** */
+
+    private static final String CONFIG = "../testing/correct/default.conf";
+
+    /**
+     * Return the output lines of Main run with OPTIONS on INPUT.
+     */
+    private List<String> run(String input, String... options)
+        throws IOException {
+        File in = folder.newFile();
+        File out = folder.newFile();
+        Files.writeString(in.toPath(), input);
+        String[] args = new String[options.length + 3];
+        System.arraycopy(options, 0, args, 0, options.length);
+        args[options.length] = CONFIG;
+        args[options.length + 1] = in.getPath();
+        args[options.length + 2] = out.getPath();
+        Main.main(args);
+        return Files.readAllLines(out.toPath());
+    }
+
+    @Test
+    public void testRingsResetWithoutRingField() throws IOException {
+        String input = "* B Beta III IV I AXLE BCDE (HQ) (EX)\n"
+            + "FROM HIS SHOULDER HIAWATHA\n"
+            + "* B Beta III IV I AXLE (HQ) (EX)\n"
+            + "FROM HIS SHOULDER HIAWATHA\n"
+            + "* B Beta III IV I AXLE AAAA (HQ) (EX)\n"
+            + "FROM HIS SHOULDER HIAWATHA\n";
+        for (String[] options : new String[][] {{}, {"--batch"}}) {
+            List<String> lines = run(input, options);
+            assertNotEquals(lines.get(2), lines.get(0));
+            assertEquals(lines.get(2), lines.get(1));
+        }
+    }
+
+}
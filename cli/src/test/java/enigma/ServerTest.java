@@ -0,0 +1,164 @@
+package enigma;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+
+import static org.junit.Assert.*;
+
+/**
+ * The suite of all JUnit tests for the Server class.
+ *
+ * @author
+ */
+public class ServerTest {
+
+    /**
+     * Testing time limit.
+     */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10);
+
+    /* ***** TESTS ***** */
+
+    private static final Alphabet AZ =
+        new Alphabet("ABCDEFGHIJKLMNOPQRSTUVWXYZ");
+
+    static final String SETTINGS =
+        "* B Beta III IV I AXLE (HQ) (EX) (IP) (TR) (BY)";
+
+    static final String MESSAGE = "FROM HIS SHOULDER HIAWATHA";
+
+    private static final String CONVERTED = "QVPQS OKOIL PUBKJ ZPISF XDW";
+
+    /**
+     * Return a machine with the Naval rotors of the example in the
+     * project description, shared by the tests of this module.
+     */
+    static Machine naval() {
+        List<Rotor> rotors = List.of(
+            new Reflector("B", new Permutation(
+                "(AE) (BN) (CK) (DQ) (FU) (GY) (HW) (IJ) (LO) (MP) "
+                + "(RX) (SZ) (TV)", AZ)),
+            new FixedRotor("Beta", new Permutation(
+                "(ALBEVFCYODJWUGNMQTZSKPR) (HIX)", AZ)),
+            new MovingRotor("III", new Permutation(
+                "(ABDHPEJT) (CFLVMZOYQIRWUKXSG) (N)", AZ), "V"),
+            new MovingRotor("IV", new Permutation(
+                "(AEPLIYWCOXMRFZBSTGJQNH) (DV) (KU)", AZ), "J"),
+            new MovingRotor("I", new Permutation(
+                "(AELTPHQXRU) (BKNW) (CMOY) (DFG) (IV) (JZ) (S)", AZ),
+                "Q"));
+        return new Machine(AZ, 5, 3, rotors);
+    }
+
+    private ServerSocketChannel _channel;
+
+    private String _address;
+
+    @Before
+    public void startServer() throws IOException {
+        _channel = Server.open("0");
+        _address = Integer.toString(
+            ((InetSocketAddress) _channel.getLocalAddress()).getPort());
+        Thread server =
+            new Thread(() -> new Server(naval()).serve(_channel));
+        server.setDaemon(true);
+        server.start();
+    }
+
+    @After
+    public void stopServer() throws IOException {
+        _channel.close();
+    }
+
+    private static void send(SocketChannel client, String text)
+        throws IOException {
+        ByteBuffer buf =
+            ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        while (buf.hasRemaining()) {
+            client.write(buf);
+        }
+    }
+
+    @Test
+    public void testConvert() {
+        Server server = new Server(naval());
+        assertEquals(CONVERTED, server.convert(SETTINGS, MESSAGE));
+        assertEquals(CONVERTED, server.convert(SETTINGS, MESSAGE));
+        assertEquals("", server.convert(SETTINGS, ""));
+        assertTrue(server.convert("* B Beta III IV X AXLE", MESSAGE)
+                   .startsWith("Error: "));
+        assertTrue(server.convert("B Beta III IV I AXLE", MESSAGE)
+                   .startsWith("Error: "));
+    }
+
+    @Test
+    public void testStarredMessage() {
+        Server server = new Server(naval());
+        assertEquals("*QVPQ *SOKO ILPUB KJZPI SFXDW",
+                     server.convert(SETTINGS, "*FROM *HIS SHOULDER HIAWATHA"));
+        assertEquals(CONVERTED, server.convert(SETTINGS, MESSAGE));
+    }
+
+    @Test
+    public void testPipelined() throws IOException {
+        int n = 500;
+        StringBuilder requests = new StringBuilder();
+        for (int i = 0; i < n; i += 1) {
+            if (i % 10 == 9) {
+                requests.append("* B Beta III IV X AXLE\r\n");
+            } else {
+                requests.append(SETTINGS).append("\r\n");
+            }
+            requests.append(MESSAGE).append('\n');
+        }
+        try (SocketChannel client = Server.connect(_address)) {
+            send(client, requests.toString());
+            Server.LineReader in = new Server.LineReader(client);
+            for (int i = 0; i < n; i += 1) {
+                String response = in.readLine();
+                if (i % 10 == 9) {
+                    assertTrue(response.startsWith("Error: "));
+                } else {
+                    assertEquals(CONVERTED, response);
+                }
+            }
+            client.shutdownOutput();
+            assertNull(in.readLine());
+        }
+    }
+
+    @Test
+    public void testConnections() throws Exception {
+        Thread[] clients = new Thread[8];
+        String[] results = new String[clients.length];
+        for (int k = 0; k < clients.length; k += 1) {
+            int j = k;
+            clients[k] = new Thread(() -> {
+                try (SocketChannel client = Server.connect(_address)) {
+                    send(client, SETTINGS + "\n" + MESSAGE + "\n");
+                    results[j] = new Server.LineReader(client).readLine();
+                } catch (IOException excp) {
+                    results[j] = excp.getMessage();
+                }
+            });
+            clients[k].start();
+        }
+        for (int k = 0; k < clients.length; k += 1) {
+            clients[k].join();
+            assertEquals(CONVERTED, results[k]);
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+package enigma;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static enigma.EnigmaException.*;
+
+/**
+ * An alphabet of encodable characters.  Provides a mapping from characters
+ * to and from indices into the alphabet.
+ *
+ * @author Aishik Bhattacharyya
+ */
+class Alphabet {
+    /**
+     * Characters at or above this value are looked up in _sparse rather
+     * than _index.
+     */
+    private static final int DENSE_LIMIT = 1 << 11;
+
+    /**
+     * One more than the largest ASCII character.
+     */
+    private static final int ASCII_LIMIT = 0x80;
+
+    /**
+     * Alphabet string worked on.
+     */
+    private String _chars;
+
+    /**
+     * Index of each character below DENSE_LIMIT, or -1 if it is not in
+     * the alphabet.
+     */
+    private final int[] _index;
+
+    /**
+     * Indices of characters at or above DENSE_LIMIT, if there are any.
+     */
+    private HashMap<Character, Integer> _sparse;
+
+    /**
+     * A new alphabet containing CHARS. The K-th character has index
+     * K (numbering from 0). No character may be duplicated.
+     */
+    Alphabet(String chars) {
+        _chars = chars;
+        int max = 0;
+        for (int i = 0; i < chars.length(); i += 1) {
+            max = Math.max(max, chars.charAt(i));
+        }
+        _index = new int[Math.min(max + 1, DENSE_LIMIT)];
+        Arrays.fill(_index, -1);
+        for (int i = 0; i < chars.length(); i += 1) {
+            char ch = chars.charAt(i);
+            if (toInt(ch) != -1) {
+                throw error("duplicate character %c in alphabet", ch);
+            }
+            if (ch < _index.length) {
+                _index[ch] = i;
+            } else {
+                if (_sparse == null) {
+                    _sparse = new HashMap<>();
+                }
+                _sparse.put(ch, i);
+            }
+        }
+    }
+
+    /**
+     * A default alphabet of all upper-case characters.
+     */
+    Alphabet() {
+        this("ABCDEFGHIJKLMNOPQRSTUVWXYZ");
+    }
+
+    /**
+     * Returns the size of the alphabet.
+     */
+    int size() {
+        return _chars.length();
+    }
+
+    /**
+     * Returns true iff every character of this alphabet is ASCII.
+     */
+    boolean ascii() {
+        return _index.length <= ASCII_LIMIT;
+    }
+
+    /**
+     * Returns true if CH is in this alphabet.
+     */
+    boolean contains(char ch) {
+        return toInt(ch) >= 0;
+    }
+
+    /**
+     * Returns character number INDEX in the alphabet, where
+     * 0 <= INDEX < size().
+     */
+    char toChar(int index) {
+        index = index % size();
+        return _chars.charAt(index);
+    }
+
+    /**
+     * Returns the index of character CH which must be in
+     * the alphabet. This is the inverse of toChar().
+     */
+    int toInt(char ch) {
+        if (ch < _index.length) {
+            return _index[ch];
+        }
+        if (_sparse == null) {
+            return -1;
+        }
+        Integer k = _sparse.get(ch);
+        return k == null ? -1 : k;
+    }
+
+    Alphabet rotate(char ch) {
+        String newAlpha = "";
+        int newStart = _chars.indexOf(ch);
+        for (int i = newStart; i < _chars.length() + newStart; i++) {
+            int pos = i % _chars.length();
+            newAlpha += _chars.charAt(pos);
+        }
+        return new Alphabet(newAlpha);
+    }
+
+}
@@ -0,0 +1,200 @@
+package enigma;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A directory of compiled configurations.  Each file holds a parsed
+ * configuration (alphabet, rotor and pawl counts, and for each rotor its
+ * kind, name, notches and permutation table), together with the
+ * configuration text it came from, and is named by a hash of that text.
+ * A file is used only if the text stored in it matches the text being
+ * loaded, so an edited configuration is simply parsed again.  The hash
+ * is computed directly rather than with a MessageDigest, whose security
+ * providers take longer to load than parsing a configuration takes.
+ * Files are replaced atomically, so concurrent runs sharing a directory
+ * never see a partial file.
+ *
+ * @author Aishik Bhattacharyya
+ */
+class ConfigCache {
+
+    /**
+     * A cache kept in directory DIR, which is created when first needed.
+     */
+    ConfigCache(Path dir) {
+        _dir = dir;
+    }
+
+    /**
+     * Return a machine, reporting to TRACER, built from the compiled
+     * form of the configuration whose text is TEXT, or null if there is
+     * no valid compiled form in my directory.
+     */
+    Machine load(byte[] text, ConversionTracer tracer) {
+        byte[] data;
+        try {
+            data = Files.readAllBytes(file(text));
+        } catch (IOException excp) {
+            return null;
+        }
+        try (DataInputStream in =
+             new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            byte[] stored = new byte[in.readInt()];
+            in.readFully(stored);
+            if (!Arrays.equals(stored, text)) {
+                return null;
+            }
+            Alphabet alphabet = new Alphabet(in.readUTF());
+            int numRotors = in.readInt();
+            int pawls = in.readInt();
+            int count = in.readInt();
+            ArrayList<Rotor> rotors = new ArrayList<>(count);
+            int[] table = new int[alphabet.size()];
+            for (int i = 0; i < count; i += 1) {
+                byte kind = in.readByte();
+                String name = in.readUTF();
+                String notches = in.readUTF();
+                for (int c = 0; c < table.length; c += 1) {
+                    table[c] = in.readInt();
+                }
+                Permutation perm = new Permutation(table, alphabet);
+                switch (kind) {
+                case MOVING:
+                    rotors.add(new MovingRotor(name, perm, notches));
+                    break;
+                case FIXED:
+                    rotors.add(new FixedRotor(name, perm));
+                    break;
+                case REFLECTOR:
+                    rotors.add(new Reflector(name, perm));
+                    break;
+                default:
+                    return null;
+                }
+            }
+            return new Machine(alphabet, numRotors, pawls, rotors, tracer);
+        } catch (IOException | EnigmaException excp) {
+            return null;
+        }
+    }
+
+    /**
+     * Store the compiled form of MACHINE, freshly built from the
+     * configuration whose text is TEXT.  Failures to write are ignored:
+     * the configuration will just be parsed again next time.
+     */
+    void store(byte[] text, Machine machine) {
+        Path temp = null;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            Alphabet alphabet = machine.alphabet();
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(text.length);
+            out.write(text);
+            StringBuilder chars = new StringBuilder();
+            for (int c = 0; c < alphabet.size(); c += 1) {
+                chars.append(alphabet.toChar(c));
+            }
+            out.writeUTF(chars.toString());
+            out.writeInt(machine.numRotors());
+            out.writeInt(machine.numPawls());
+            out.writeInt(machine.allRotors().size());
+            for (Rotor r : machine.allRotors()) {
+                out.writeByte(r.reflecting() ? REFLECTOR
+                              : r.rotates() ? MOVING : FIXED);
+                out.writeUTF(r.name());
+                out.writeUTF(r.notches());
+                for (int c = 0; c < alphabet.size(); c += 1) {
+                    out.writeInt(r.permutation().permute(c));
+                }
+            }
+            out.flush();
+
+            Files.createDirectories(_dir);
+            temp = Files.createTempFile(_dir, "config", ".tmp");
+            Files.write(temp, bytes.toByteArray());
+            try {
+                Files.move(temp, file(text),
+                           StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException excp) {
+                Files.move(temp, file(text),
+                           StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException excp) {
+            if (temp != null) {
+                delete(temp);
+            }
+        }
+    }
+
+    /**
+     * Delete FILE, if possible.
+     */
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException excp) {
+            return;
+        }
+    }
+
+    /**
+     * Return the file that holds the compiled form of the configuration
+     * whose text is TEXT, if any.
+     */
+    private Path file(byte[] text) {
+        return _dir.resolve(String.format("%016x.enigma", hash(text)));
+    }
+
+    /**
+     * Return the 64-bit FNV-1a hash of TEXT.
+     */
+    static long hash(byte[] text) {
+        long result = FNV_OFFSET;
+        for (byte b : text) {
+            result = (result ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return result;
+    }
+
+    /**
+     * First word of every compiled configuration ("ENGC").
+     */
+    private static final int MAGIC = 0x454e4743;
+
+    /**
+     * Version of the format written by store.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Parameters of the FNV-1a hash.
+     */
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L,
+        FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Codes for the kinds of rotor.
+     */
+    private static final byte MOVING = 'M', FIXED = 'N', REFLECTOR = 'R';
+
+    /**
+     * Directory holding the compiled configurations.
+     */
+    private final Path _dir;
+}
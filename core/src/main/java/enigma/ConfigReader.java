@@ -0,0 +1,252 @@
+package enigma;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+import static enigma.EnigmaException.*;
+
+/**
+ * Reads machine configurations and the settings lines that set machines
+ * up, in the formats of the simulator's input.  If the environment
+ * variable ENIGMA_CONFIG_CACHE names a directory, configurations are
+ * loaded from their compiled forms there (see ConfigCache) when those
+ * are present, and compiled into it otherwise.
+ *
+ * @author Aishik Bhattacharyya
+ */
+final class ConfigReader {
+
+    /**
+     * A reader of the configuration CONFIGTEXT.
+     */
+    private ConfigReader(byte[] configText) {
+        lastUsed = false;
+        lastStr = "";
+        _configText = configText;
+    }
+
+    /**
+     * Return an Enigma machine configured from the configuration file
+     * named CONFIG, with no tracer.
+     */
+    static Machine readConfig(String config) {
+        try {
+            return readConfig(Files.readAllBytes(Paths.get(config)),
+                              ConversionTracer.NONE);
+        } catch (IOException excp) {
+            throw error("could not open %s", config);
+        }
+    }
+
+    /**
+     * Return an Enigma machine reporting to TRACER, configured from the
+     * configuration text CONFIGTEXT.
+     */
+    static Machine readConfig(byte[] configText, ConversionTracer tracer) {
+        String cacheDir = System.getenv(CONFIG_CACHE_VARIABLE);
+        ConfigCache cache = cacheDir == null || cacheDir.isEmpty()
+            ? null : new ConfigCache(Paths.get(cacheDir));
+        if (cache != null) {
+            Machine result = cache.load(configText, tracer);
+            if (result != null) {
+                return result;
+            }
+        }
+        Machine result = new ConfigReader(configText).parseConfig(tracer);
+        if (cache != null) {
+            cache.store(configText, result);
+        }
+        return result;
+    }
+
+    /**
+     * Set up M according to the settings line S.
+     */
+    static void configure(Machine m, String s) {
+        long start = m.metrics() == null ? 0 : System.nanoTime();
+        int parenthesis = s.length();
+        if (s.indexOf('(') != -1) {
+            parenthesis = s.indexOf('(');
+        }
+        String[] split = s.substring(0, parenthesis).split("\\s");
+        if (split.length < m.numRotors() + 2 || !split[0].equals("*")) {
+            throw error("bad settings line: %s", s);
+        }
+        String[] rotors = new String[m.numRotors()];
+        for (int i = 1; i < rotors.length + 1; i++) {
+            rotors[i - 1] = split[i];
+        }
+        m.insertRotors(rotors);
+
+        String settings = split[m.numRotors() + 1];
+        if (settings.length() != m.numRotors() - 1) {
+            throw new EnigmaException("Incorrect settings input.");
+        }
+        setUp(m, settings);
+
+        try {
+            if (split.length > m.numRotors() + 2) {
+                m.setRings(split[m.numRotors() + 2]);
+            } else {
+                m.setRings(String.valueOf(m.alphabet().toChar(0))
+                           .repeat(m.numRotors() - 1));
+            }
+        } catch (Exception e) {
+            String ignored = "";
+        }
+
+
+        if (s.indexOf('(') != -1) {
+            m.setPlugboard(s.substring(s.indexOf('(')));
+        } else {
+            m.setPlugboard("");
+        }
+        if (m.metrics() != null) {
+            m.metrics().recordSettings(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Return an Enigma machine reporting to TRACER, configured by parsing
+     * _configText.
+     */
+    private Machine parseConfig(ConversionTracer tracer) {
+        _config = new Scanner(new String(_configText,
+                                         Charset.defaultCharset()));
+        try {
+            int numRotors = 0;
+            int pawls = 0;
+            Collection<Rotor> allRotors = new ArrayList<>();
+            int index = 0;
+            while (_config.hasNextLine() | lastUsed) {
+                if (index == 0) {
+                    String s = _config.nextLine().strip();
+                    if (s.contains(" ")) {
+                        throw new EnigmaException("Invalid alphabet");
+                    }
+                    _alphabet = new Alphabet(s);
+                } else if (index == 1) {
+                    String s = _config.nextLine().strip();
+                    String[] nums = s.split(" ");
+                    try {
+                        numRotors = Integer.parseInt(nums[0]);
+                        pawls = Integer.parseInt(nums[1]);
+                    } catch (Exception e) {
+                        throw new EnigmaException(
+                                "Invalid num rotors or num pawls");
+                    }
+                } else if (index >= 2) {
+                    Rotor rotor = readRotor();
+                    if (rotor != null) {
+                        allRotors.add(rotor);
+                    }
+                }
+
+                index += 1;
+            }
+            return new Machine(_alphabet, numRotors, pawls, allRotors,
+                               tracer);
+        } catch (NoSuchElementException excp) {
+            throw error("configuration file truncated");
+        }
+    }
+
+    /**
+     * Return a rotor, reading its description from _config.
+     */
+    private Rotor readRotor() {
+        try {
+            String s;
+            if (lastUsed) {
+                s = lastStr;
+                lastUsed = false;
+            } else {
+                s = _config.nextLine().strip();
+            }
+            while (!lastUsed) {
+                if (_config.hasNext()) {
+                    String next = _config.nextLine().strip();
+                    if (next.charAt(0) == '(') {
+                        s += next;
+                    } else {
+                        lastUsed = true;
+                        lastStr = next;
+                    }
+                } else {
+                    break;
+                }
+            }
+            if (s.length() == 0) {
+                return null;
+            }
+            int opening = s.indexOf("(");
+            String infoString = s.substring(0, opening);
+            String[] info = infoString.split(" ");
+            String name = info[0];
+            String type = info[1].substring(0, 1);
+            Permutation perm = new Permutation(s.substring(opening), _alphabet);
+
+            if (type.equals("M")) {
+                MovingRotor m = new
+                        MovingRotor(name, perm, info[1].substring(1));
+                return m;
+            } else if (type.equals("N")) {
+                FixedRotor f = new FixedRotor(name, perm);
+                return f;
+            } else if (type.equals("R")) {
+                Reflector r = new Reflector(name, perm);
+                return r;
+            }
+        } catch (NoSuchElementException excp) {
+            throw error("bad rotor description");
+        }
+        return null;
+    }
+
+    /**
+     * Set M according to the specification given on SETTINGS,
+     * which must have the format specified in the assignment.
+     */
+    private static void setUp(Machine M, String settings) {
+        M.setRotors(settings);
+    }
+
+
+    /**
+     * Environment variable naming the directory of compiled
+     * configurations.
+     */
+    private static final String CONFIG_CACHE_VARIABLE =
+        "ENIGMA_CONFIG_CACHE";
+
+    /**
+     * Alphabet of the configuration being read.
+     */
+    private Alphabet _alphabet;
+
+    /**
+     * Source of machine configuration.
+     */
+    private Scanner _config;
+
+    /**
+     * Contents of the configuration file.
+     */
+    private final byte[] _configText;
+
+    /**
+     * Last string read by the scanner.
+     */
+    private String lastStr;
+
+    /**
+     * If last string has been processed.
+     */
+    private boolean lastUsed;
+}
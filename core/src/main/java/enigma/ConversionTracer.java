@@ -0,0 +1,43 @@
+package enigma;
+
+/**
+ * Observer of the single-keystroke conversions of a Machine.  For each
+ * keystroke, the machine calls start once, after stepping its rotors,
+ * then stage for each intermediate result in the order they arise (the
+ * plugboard, each rotor from right to left, then each rotor from left to
+ * right on the way back), and finally finish with the output.  All
+ * characters are indices in the machine's alphabet.
+ *
+ * A Machine built with NONE converts in bulk without calling its tracer
+ * at all; one built with any other tracer converts every character
+ * through convert(int), so that each keystroke is traced.
+ *
+ * @author Aishik Bhattacharyya
+ */
+interface ConversionTracer {
+
+    /**
+     * The tracer that records nothing.
+     */
+    ConversionTracer NONE = new ConversionTracer() {
+    };
+
+    /**
+     * Begin tracing the conversion of C by MACHINE, whose rotors have
+     * just been stepped for it.
+     */
+    default void start(Machine machine, int c) {
+    }
+
+    /**
+     * Record that the current conversion has reached C.
+     */
+    default void stage(int c) {
+    }
+
+    /**
+     * Finish tracing the current conversion, whose result is C.
+     */
+    default void finish(int c) {
+    }
+}
@@ -0,0 +1,364 @@
+package enigma;
+
+import java.util.Arrays;
+
+import static enigma.EnigmaException.*;
+
+/**
+ * A configured Machine compiled into flat int arrays, so that stepping,
+ * the plugboard and the round trip through the rotors need neither
+ * allocation nor virtual calls.  The wirings, notches, reflector and
+ * plugboard are fixed when the engine is built; rotor settings and ring
+ * settings are copied in and out of the Machine's rotors by load and
+ * store.
+ *
+ * @author Aishik Bhattacharyya
+ */
+final class EnigmaEngine {
+
+    /**
+     * An engine for the rotors and plugboard currently in M.
+     */
+    EnigmaEngine(Machine m) {
+        _alphabet = m.alphabet();
+        _size = _alphabet.size();
+        _numRotors = m.numRotors();
+        if (m.getRotor(_numRotors - 1) == null) {
+            throw error("no rotors inserted");
+        }
+        _leftmost = Math.max(_numRotors - m.numPawls(), 0);
+        _forward = new int[_numRotors * 2 * _size];
+        _backward = new int[_numRotors * 2 * _size];
+        _notch = new boolean[_numRotors * _size];
+        _rotates = new boolean[_numRotors];
+        _pos = new int[_numRotors];
+        _advances = new long[_numRotors];
+        _ring = new int[_numRotors];
+        _offset = new int[_numRotors];
+        _reflector = new int[_size];
+        _plugboard = new int[_size];
+
+        Permutation refl = m.getRotor(0).permutation();
+        Permutation plug = m.plugboard();
+        for (int c = 0; c < _size; c += 1) {
+            _reflector[c] = refl.permute(c);
+            _plugboard[c] = plug == null ? c : plug.permute(c);
+        }
+        for (int k = 1; k < _numRotors; k += 1) {
+            Rotor r = m.getRotor(k);
+            Permutation perm = r.permutation();
+            int base = k * 2 * _size;
+            for (int x = 0; x < 2 * _size; x += 1) {
+                _forward[base + x] = perm.permute(x);
+                _backward[base + x] = perm.invert(x);
+            }
+            for (int p = 0; p < _size; p += 1) {
+                _notch[k * _size + p] =
+                    r.notches().indexOf(_alphabet.toChar(p)) >= 0;
+            }
+            _rotates[k] = r.rotates();
+        }
+        load(m);
+    }
+
+    /**
+     * A copy of ENGINE with its own rotor settings, sharing its
+     * (unchanging) wirings and plugboard.
+     */
+    private EnigmaEngine(EnigmaEngine engine) {
+        _alphabet = engine._alphabet;
+        _size = engine._size;
+        _numRotors = engine._numRotors;
+        _leftmost = engine._leftmost;
+        _forward = engine._forward;
+        _backward = engine._backward;
+        _notch = engine._notch;
+        _rotates = engine._rotates;
+        _reflector = engine._reflector;
+        _plugboard = engine._plugboard;
+        _pos = engine._pos.clone();
+        _advances = new long[_numRotors];
+        _ring = engine._ring.clone();
+        _offset = engine._offset.clone();
+    }
+
+    /**
+     * Return a copy of me that can be used independently of me, for
+     * instance in another thread.
+     */
+    EnigmaEngine copy() {
+        return new EnigmaEngine(this);
+    }
+
+    /**
+     * Set my rotor settings to SETTINGS, where SETTINGS[K] is the setting
+     * of the rotor in slot K.
+     */
+    void set(int[] settings) {
+        for (int k = 1; k < _numRotors; k += 1) {
+            _pos[k] = settings[k];
+            setOffset(k);
+        }
+    }
+
+    /**
+     * Copy the settings and ring settings of M's rotors into me.  M must
+     * hold the rotors I was built from.
+     */
+    void load(Machine m) {
+        for (int k = 1; k < _numRotors; k += 1) {
+            Rotor r = m.getRotor(k);
+            _pos[k] = r.setting();
+            _ring[k] = r.ringSetting();
+            setOffset(k);
+        }
+    }
+
+    /**
+     * Copy my rotor settings back into the rotors of M.  M must hold the
+     * rotors I was built from.
+     */
+    void store(Machine m) {
+        for (int k = 1; k < _numRotors; k += 1) {
+            m.getRotor(k).set(_pos[k]);
+        }
+    }
+
+    /**
+     * Return the size of my alphabet.
+     */
+    int size() {
+        return _size;
+    }
+
+    /**
+     * Returns the result of converting the input character C (as an
+     * index in the range 0..size() - 1), after first advancing the
+     * rotors.  Agrees exactly with Machine.convert(int).
+     */
+    int convert(int c) {
+        step();
+        return _plugboard[core(_plugboard[c])];
+    }
+
+    /**
+     * Return the conversion of C by the rotors and reflector alone at
+     * their current settings, without advancing them and without the
+     * plugboard.  For each setting this is an involution with no fixed
+     * points.
+     */
+    int core(int c) {
+        for (int k = _numRotors - 1; k > 0; k -= 1) {
+            int y = _forward[k * 2 * _size + c + _offset[k]] - _offset[k];
+            c = y < 0 ? y + _size : y;
+        }
+        c = _reflector[c];
+        for (int k = 1; k < _numRotors; k += 1) {
+            int y = _backward[k * 2 * _size + c + _offset[k]] - _offset[k];
+            c = y < 0 ? y + _size : y;
+        }
+        return c;
+    }
+
+    /**
+     * Return the current setting of the rotor in slot K.
+     */
+    int setting(int k) {
+        return _pos[k];
+    }
+
+    /**
+     * Return the conversion of character CH, after first advancing the
+     * rotors, or CH itself, without advancing, if it is not in my
+     * alphabet.
+     */
+    char convert(char ch) {
+        int c = _alphabet.toInt(ch);
+        return c < 0 ? ch : _alphabet.toChar(convert(c));
+    }
+
+    /**
+     * Convert the LEN characters of IN starting at OFF into OUT starting
+     * at OUTOFF, copying characters not in my alphabet unchanged.
+     * Returns the number of characters converted.
+     */
+    int convert(char[] in, int off, int len, char[] out, int outOff) {
+        int n = 0;
+        for (int i = 0; i < len; i += 1) {
+            char ch = in[off + i];
+            int c = _alphabet.toInt(ch);
+            if (c >= 0) {
+                ch = _alphabet.toChar(convert(c));
+                n += 1;
+            }
+            out[outOff + i] = ch;
+        }
+        return n;
+    }
+
+    /**
+     * Convert the LEN ASCII characters of IN starting at OFF into OUT
+     * starting at 0, copying bytes not in my alphabet unchanged.  My
+     * alphabet must be ASCII.  Returns the number of characters
+     * converted.
+     */
+    int convert(byte[] in, int off, int len, byte[] out) {
+        int n = 0;
+        for (int i = 0; i < len; i += 1) {
+            byte b = in[off + i];
+            int c = _alphabet.toInt((char) (b & 0xff));
+            if (c >= 0) {
+                b = (byte) _alphabet.toChar(convert(c));
+                n += 1;
+            }
+            out[i] = b;
+        }
+        return n;
+    }
+
+    /**
+     * Add to METRICS the advances and double steps I have made since the
+     * last call, given that I have converted KEYSTROKES characters in
+     * that time, and reset my counts.  If METRICS is null, the counts
+     * are discarded.
+     */
+    void drain(MachineMetrics metrics, long keystrokes) {
+        if (metrics == null) {
+            Arrays.fill(_advances, 0);
+            _doubleSteps = 0;
+            return;
+        }
+        int fast = _numRotors - 1;
+        for (int k = 1; k < fast; k += 1) {
+            metrics.recordAdvances(k, _advances[k]);
+            _advances[k] = 0;
+        }
+        if (_rotates[fast]) {
+            metrics.recordAdvances(fast, keystrokes);
+        }
+        metrics.recordDoubleSteps(_doubleSteps);
+        _doubleSteps = 0;
+    }
+
+    /**
+     * Advance the rotors as Machine does before each character: the
+     * fast rotor always moves, and a rotor in a pawl slot moves when the
+     * rotor to its right is at a notch, as does that rotor (the double
+     * step).  Each rotor's move depends only on its own setting and that
+     * of its right neighbour, so deciding from left to right lets the
+     * settings be updated in place.  Moves of the slower rotors are rare,
+     * so counting them for drain costs nothing measurable.
+     */
+    void step() {
+        int fast = _numRotors - 1;
+        for (int k = Math.max(_leftmost, 1); k < fast; k += 1) {
+            boolean moves = _notch[(k + 1) * _size + _pos[k + 1]]
+                || (k > _leftmost && _notch[k * _size + _pos[k]]);
+            if (moves && _rotates[k]) {
+                _advances[k] += 1;
+                if (!_notch[(k + 1) * _size + _pos[k + 1]]) {
+                    _doubleSteps += 1;
+                }
+                advance(k);
+            }
+        }
+        if (_rotates[fast]) {
+            advance(fast);
+        }
+    }
+
+    /**
+     * Move rotor K to its next setting.
+     */
+    private void advance(int k) {
+        _pos[k] = _pos[k] + 1 == _size ? 0 : _pos[k] + 1;
+        setOffset(k);
+    }
+
+    /**
+     * Recompute the offset of rotor K from its setting and ring setting.
+     */
+    private void setOffset(int k) {
+        int off = (_pos[k] - _ring[k]) % _size;
+        _offset[k] = off < 0 ? off + _size : off;
+    }
+
+    /**
+     * Number of advances of each slot other than the fast one since the
+     * last drain.
+     */
+    private final long[] _advances;
+
+    /**
+     * Number of double steps since the last drain.
+     */
+    private long _doubleSteps;
+
+    /**
+     * My alphabet.
+     */
+    private final Alphabet _alphabet;
+
+    /**
+     * Size of my alphabet.
+     */
+    private final int _size;
+
+    /**
+     * Number of rotor slots, including the reflector in slot 0.
+     */
+    private final int _numRotors;
+
+    /**
+     * Leftmost slot with a pawl.
+     */
+    private final int _leftmost;
+
+    /**
+     * For the rotor in slot K, entry K * 2 * size() + X is the image of
+     * X modulo size() under its permutation, so that a shifted input can
+     * be looked up without reducing it first.
+     */
+    private final int[] _forward;
+
+    /**
+     * As for _forward, but for the inverse permutations.
+     */
+    private final int[] _backward;
+
+    /**
+     * Entry K * size() + P is true iff the rotor in slot K has a notch at
+     * setting P.
+     */
+    private final boolean[] _notch;
+
+    /**
+     * True for the slots whose rotors can move.
+     */
+    private final boolean[] _rotates;
+
+    /**
+     * Current setting of the rotor in each slot.
+     */
+    private final int[] _pos;
+
+    /**
+     * Ring setting of the rotor in each slot.
+     */
+    private final int[] _ring;
+
+    /**
+     * Setting less ring setting, modulo size(), for each slot.
+     */
+    private final int[] _offset;
+
+    /**
+     * The reflector's permutation.
+     */
+    private final int[] _reflector;
+
+    /**
+     * The plugboard's permutation.
+     */
+    private final int[] _plugboard;
+}
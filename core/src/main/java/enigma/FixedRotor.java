@@ -17,4 +17,16 @@ class FixedRotor extends Rotor {
         super(name, perm);
     }
 
+    /**
+     * A copy of ROTOR, as for Rotor(Rotor).
+     */
+    FixedRotor(FixedRotor rotor) {
+        super(rotor);
+    }
+
+    @Override
+    FixedRotor copy() {
+        return new FixedRotor(this);
+    }
+
 }
@@ -0,0 +1,155 @@
+package enigma;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent histogram of durations in nanoseconds, with buckets of
+ * logarithmically increasing width in the manner of HdrHistogram.
+ * Values below 2 * SUB_BUCKETS each have their own bucket; above that,
+ * each power of two is split into SUB_BUCKETS equal buckets, so that
+ * every recorded value is known to within 1/SUB_BUCKETS of itself.
+ * Recording is a few atomic additions and never allocates.
+ *
+ * @author Aishik Bhattacharyya
+ */
+class LatencyHistogram {
+
+    /**
+     * Record one duration of NANOS nanoseconds.  Negative durations are
+     * recorded as 0.
+     */
+    void record(long nanos) {
+        long v = Math.max(nanos, 0);
+        _buckets.incrementAndGet(bucket(v));
+        _count.increment();
+        _total.add(v);
+        _max.accumulate(v);
+    }
+
+    /**
+     * Return the number of durations recorded.
+     */
+    long count() {
+        return _count.sum();
+    }
+
+    /**
+     * Return the mean of the durations recorded, or 0 if there are none.
+     */
+    long mean() {
+        long n = _count.sum();
+        return n == 0 ? 0 : _total.sum() / n;
+    }
+
+    /**
+     * Return the longest duration recorded, or 0 if there are none.
+     */
+    long max() {
+        return _max.get();
+    }
+
+    /**
+     * Return an estimate of the duration at or below which fraction Q of
+     * the recorded durations lie, where 0 <= Q <= 1.  Returns 0 if
+     * there are no durations.
+     */
+    long percentile(double q) {
+        long n = 0;
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i += 1) {
+            counts[i] = _buckets.get(i);
+            n += counts[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i += 1) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(middle(i), max());
+            }
+        }
+        return max();
+    }
+
+    /**
+     * Return a summary of my contents: the count, mean, 50th, 90th and
+     * 99th percentiles and maximum, in that order.
+     */
+    Map<String, Long> summary() {
+        LinkedHashMap<String, Long> result = new LinkedHashMap<>();
+        result.put("count", count());
+        result.put("mean", mean());
+        result.put("p50", percentile(0.50));
+        result.put("p90", percentile(0.90));
+        result.put("p99", percentile(0.99));
+        result.put("max", max());
+        return result;
+    }
+
+    /**
+     * Return the index of the bucket holding V >= 0.
+     */
+    static int bucket(long v) {
+        if (v < 2 * SUB_BUCKETS) {
+            return (int) v;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BUCKET_BITS;
+        return Math.min((shift + 1) * SUB_BUCKETS
+                        + (int) (v >>> shift) - SUB_BUCKETS, BUCKETS - 1);
+    }
+
+    /**
+     * Return the middle of the range of values held by bucket I.
+     */
+    static long middle(int i) {
+        if (i < 2 * SUB_BUCKETS) {
+            return i;
+        }
+        int shift = i / SUB_BUCKETS - 1;
+        long low = (long) (i % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return low + (1L << shift) / 2;
+    }
+
+    /**
+     * Log base 2 of the number of buckets per power of two.
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /**
+     * Number of buckets per power of two.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Number of buckets: enough for durations up to 2**43 ns (about two
+     * and a half hours); longer ones go in the last bucket.
+     */
+    private static final int BUCKETS = (43 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    /**
+     * Number of durations recorded in each bucket.
+     */
+    private final AtomicLongArray _buckets = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Number of durations recorded.
+     */
+    private final LongAdder _count = new LongAdder();
+
+    /**
+     * Sum of the durations recorded.
+     */
+    private final LongAdder _total = new LongAdder();
+
+    /**
+     * Longest duration recorded.
+     */
+    private final LongAccumulator _max = new LongAccumulator(Math::max, 0);
+}
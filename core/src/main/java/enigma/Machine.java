@@ -0,0 +1,727 @@
+package enigma;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
+
+import static enigma.EnigmaException.*;
+
+/**
+ * Class that represents a complete enigma machine.
+ *
+ * @author Aishik Bhattacharyya
+ */
+class Machine {
+
+    /**
+     * A new Enigma machine with alphabet ALPHA, 1 < NUMROTORS rotor slots,
+     * and 0 <= PAWLS < NUMROTORS pawls.  ALLROTORS contains all the
+     * available rotors.  They are not modified, and may be shared with
+     * other Machines in other threads.
+     */
+    Machine(Alphabet alpha, int numRotors, int pawls,
+            Collection<Rotor> allRotors) {
+        this(alpha, numRotors, pawls, allRotors, ConversionTracer.NONE);
+    }
+
+    /**
+     * A new Enigma machine as for Machine(ALPHA, NUMROTORS, PAWLS,
+     * ALLROTORS), whose keystrokes are reported to TRACER.
+     */
+    Machine(Alphabet alpha, int numRotors, int pawls,
+            Collection<Rotor> allRotors, ConversionTracer tracer) {
+        _alphabet = alpha;
+        _numRotors = numRotors;
+        _pawls = pawls;
+        _allRotors = allRotors;
+        _currRotors = new ArrayList<>();
+        _tracer = tracer;
+        _rotorIndex = new HashMap<>();
+        for (Rotor r : allRotors) {
+            _rotorIndex.putIfAbsent(r.name(), r);
+        }
+    }
+
+    /**
+     * Return a copy of me, with copies of my rotors in the same slots
+     * and settings, that can be used independently of me.  The copy
+     * shares my available rotors, reports to my tracer, records into my
+     * metrics, and shares my compiled engine's tables, but starts with
+     * no cached stacks.
+     */
+    Machine copy() {
+        Machine result = new Machine(this);
+        if (_stack != null) {
+            ArrayList<Rotor> rotors = new ArrayList<>();
+            for (Rotor r : _currRotors) {
+                rotors.add(r.copy());
+            }
+            result._stack = new Stack(rotors);
+            result._stack.odometer = _stack.odometer;
+            if (_stack.engine != null) {
+                result._stack.engine = _stack.engine.copy();
+                result._stack.enginePlugboard = _stack.enginePlugboard;
+            }
+            result._currRotors = rotors;
+        }
+        result._plugboard = _plugboard;
+        result._metrics = _metrics;
+        return result;
+    }
+
+    /**
+     * A machine with the same alphabet, slots, pawls, available rotors
+     * and tracer as MACHINE, and no rotors inserted.
+     */
+    private Machine(Machine machine) {
+        _alphabet = machine._alphabet;
+        _numRotors = machine._numRotors;
+        _pawls = machine._pawls;
+        _allRotors = machine._allRotors;
+        _rotorIndex = machine._rotorIndex;
+        _currRotors = new ArrayList<>();
+        _tracer = machine._tracer;
+    }
+
+    /**
+     * Return all the rotors available to me.  These are definitions
+     * only: the rotors in my slots are copies of them.
+     */
+    Collection<Rotor> allRotors() {
+        return _allRotors;
+    }
+
+    /**
+     * Return the number of rotor slots I have.
+     */
+    int numRotors() {
+        return _numRotors;
+    }
+
+    /**
+     * Return the number pawls (and thus rotating rotors) I have.
+     */
+    int numPawls() {
+        return _pawls;
+    }
+
+    /**
+     * Return Rotor #K, where Rotor #0 is the reflector, and Rotor
+     * #(numRotors()-1) is the fast Rotor.  Modifying this Rotor has
+     * undefined results.
+     */
+    Rotor getRotor(int k) {
+        if (k < 0 || k >= _currRotors.size()) {
+            return null;
+        }
+        return _currRotors.get(k);
+    }
+
+    Alphabet alphabet() {
+        return _alphabet;
+    }
+
+    /**
+     * Set my rotor slots to copies of the rotors named ROTORS from my set
+     * of available rotors (ROTORS[0] names the reflector).
+     * Initially, all rotors are set at their 0 setting.  The stacks of
+     * the last STACK_CACHE_SIZE distinct selections are kept, with their
+     * compiled engines, so that inserting one of them again costs only
+     * a lookup and resetting its rotors' settings and ring settings.
+     */
+    void insertRotors(String[] rotors) {
+        long start = _metrics == null ? 0 : System.nanoTime();
+        List<String> key = Arrays.asList(rotors.clone());
+        Stack stack = _stacks.get(key);
+        if (stack == null) {
+            stack = new Stack(rotorsNamed(rotors));
+            _stacks.put(key, stack);
+        } else {
+            for (Rotor r : stack.rotors) {
+                r.setRings(_alphabet.toChar(0));
+                r.set(0);
+            }
+        }
+        _stack = stack;
+        _currRotors = stack.rotors;
+        if (_metrics != null) {
+            _metrics.recordInsertRotors(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Return copies of the rotors named ROTORS, in order, checking that
+     * they can be inserted together.
+     */
+    private ArrayList<Rotor> rotorsNamed(String[] rotors) {
+        ArrayList<Rotor> result = new ArrayList<>();
+        HashSet<String> names = new HashSet<>();
+        int movRotors = 0;
+        for (String name : rotors) {
+            Rotor r = _rotorIndex.get(name);
+            if (r == null) {
+                throw error("no rotor named %s", name);
+            }
+            if (!names.add(name)) {
+                throw new EnigmaException("Muliple rotors with same name.");
+            }
+            if (!r.reflecting() && result.isEmpty()) {
+                throw new EnigmaException("First rotor not reflector");
+            }
+            if (r.rotates()) {
+                movRotors++;
+            }
+            result.add(r.copy());
+        }
+        if (movRotors > _pawls) {
+            throw new EnigmaException("Too many moving rotors.");
+        }
+        return result;
+    }
+
+    /**
+     * Set my rotors according to SETTING, which must be a string of
+     * numRotors()-1 characters in my alphabet. The first letter refers
+     * to the leftmost rotor setting (not counting the reflector).
+     */
+    void setRotors(String setting) {
+        for (int i = 0; i < setting.length(); i++) {
+            if (!_alphabet.contains(setting.charAt(i))) {
+                throw new EnigmaException("Bad character in setting");
+            }
+            Rotor r = _currRotors.get(i + 1);
+            r.set(setting.charAt(i));
+        }
+    }
+
+    /**
+     * Return the current plugboard's permutation.
+     */
+    Permutation plugboard() {
+        return _plugboard;
+    }
+
+    /**
+     * Set the plugboard to PLUGBOARD.
+     */
+    void setPlugboard(Permutation plugboard) {
+        _plugboard = plugboard;
+    }
+
+    /**
+     * Set the plugboard to the permutation given by CYCLES, in the form
+     * accepted by Permutation.  The permutations of the last
+     * PLUGBOARD_CACHE_SIZE distinct CYCLES are kept, so that repeating
+     * a plugboard neither parses CYCLES again nor recompiles my engine.
+     */
+    void setPlugboard(String cycles) {
+        Permutation plugboard = _plugboards.get(cycles);
+        if (plugboard == null) {
+            plugboard = new Permutation(cycles, _alphabet);
+            _plugboards.put(cycles, plugboard);
+        }
+        _plugboard = plugboard;
+    }
+
+    /**
+     * Returns the result of converting the input character C (as an
+     * index in the range 0..alphabet size - 1), after first advancing
+     * the machine.
+     */
+    int convert(int c) {
+        advanceRotors();
+        _tracer.start(this, c);
+        c = plugboard().permute(c);
+        _tracer.stage(c);
+        c = applyRotors(c);
+        c = plugboard().permute(c);
+        _tracer.finish(c);
+        return c;
+    }
+
+    /**
+     * Advance all rotors to their next position.
+     */
+    private void advanceRotors() {
+        ArrayList<Rotor> toMove = new ArrayList<>();
+        toMove.add(_currRotors.get(_currRotors.size() - 1));
+
+        for (int i = _currRotors.size() - 2;
+             i > _currRotors.size() - _pawls - 1; i--) {
+            Rotor next = _currRotors.get(i + 1);
+            Rotor curr = _currRotors.get(i);
+
+            if (next.atNotch()) {
+                if (!toMove.contains(next)) {
+                    toMove.add(next);
+
+                }
+                if (!toMove.contains(curr)) {
+                    toMove.add(curr);
+                }
+            }
+        }
+
+        if (_metrics != null) {
+            countAdvances(toMove);
+        }
+        for (Rotor r : toMove) {
+            r.advance();
+        }
+    }
+
+    /**
+     * Record in my metrics the advances of the rotors in TOMOVE, which
+     * are about to move.  A rotor other than the fast one whose right
+     * neighbour is not at a notch is moving because of its own notch
+     * (the double step).
+     */
+    private void countAdvances(List<Rotor> toMove) {
+        for (Rotor r : toMove) {
+            int k = _currRotors.indexOf(r);
+            if (r.rotates()) {
+                _metrics.recordAdvances(k, 1);
+                if (k < _numRotors - 1 && !getRotor(k + 1).atNotch()) {
+                    _metrics.recordDoubleSteps(1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the result of applying the rotors to the character C (as an
+     * index in the range 0..alphabet size - 1).
+     */
+    private int applyRotors(int c) {
+        for (int i = _currRotors.size() - 1; i > 0; i--) {
+            Rotor curr = _currRotors.get(i);
+            c = curr.convertForward(c);
+            _tracer.stage(c);
+        }
+
+        c = _currRotors.get(0).permutation().permute(c);
+
+        for (int i = 1; i < _currRotors.size(); i++) {
+            Rotor curr = _currRotors.get(i);
+            c = curr.convertBackward(c);
+            _tracer.stage(c);
+        }
+
+        return c;
+    }
+
+    /**
+     * Returns the encoding/decoding of MSG, updating the state of
+     * the rotors accordingly.
+     */
+    String convert(String msg) {
+        char[] chars = msg.toCharArray();
+        convert(chars, 0, chars.length, chars);
+        return new String(chars);
+    }
+
+    /**
+     * Returns the encoding/decoding of MSG, as for convert(MSG), but
+     * converting pieces of a long MSG concurrently.  The rotor settings
+     * at the start of each piece are found with seek from the number of
+     * characters of my alphabet before it.
+     */
+    String convertParallel(String msg) {
+        if (traced() || msg.length() < 2 * PARALLEL_CHUNK) {
+            return convert(msg);
+        }
+        long begin = _metrics == null ? 0 : System.nanoTime();
+        char[] chars = msg.toCharArray();
+        int chunks = (chars.length + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+        long[] keys = new long[chunks + 1];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < chunks; i += 1) {
+            int chunk = i;
+            tasks.add(ForkJoinTask.adapt(() -> {
+                int end = (int) Math.min(chars.length,
+                                         (chunk + 1L) * PARALLEL_CHUNK);
+                for (int j = chunk * PARALLEL_CHUNK; j < end; j += 1) {
+                    if (_alphabet.contains(chars[j])) {
+                        keys[chunk + 1] += 1;
+                    }
+                }
+            }));
+        }
+        ForkJoinTask.invokeAll(tasks);
+        for (int i = 1; i <= chunks; i += 1) {
+            keys[i] += keys[i - 1];
+        }
+
+        EnigmaEngine engine = engine();
+        Odometer odometer = odometer();
+        int[] start = new int[_numRotors];
+        for (int k = 1; k < _numRotors; k += 1) {
+            start[k] = getRotor(k).setting();
+        }
+        Odometer.Level[] levels =
+            odometer.analyze(start, odometer.levels() - 1);
+        tasks.clear();
+        EnigmaEngine[] pieces = new EnigmaEngine[chunks];
+        for (int i = 0; i < chunks; i += 1) {
+            int from = i * PARALLEL_CHUNK;
+            int len = Math.min(chars.length - from, PARALLEL_CHUNK);
+            EnigmaEngine piece = pieces[i] = engine.copy();
+            piece.set(odometer.settingsAt(start, levels, keys[i]));
+            tasks.add(ForkJoinTask.adapt(() ->
+                piece.convert(chars, from, len, chars, from)));
+        }
+        ForkJoinTask.invokeAll(tasks);
+        engine.set(odometer.settingsAt(start, levels, keys[chunks]));
+        engine.store(this);
+        if (_metrics != null) {
+            for (int i = 0; i < chunks; i += 1) {
+                pieces[i].drain(_metrics, keys[i + 1] - keys[i]);
+            }
+            _metrics.recordConversion(keys[chunks],
+                                      System.nanoTime() - begin);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Convert the LEN characters of IN starting at OFF, storing the
+     * results at the start of OUT and updating the state of the rotors
+     * accordingly.  Characters not in my alphabet are copied unchanged.
+     * IN and OUT may be the same array.
+     */
+    void convert(char[] in, int off, int len, char[] out) {
+        convert(in, off, len, out, 0);
+    }
+
+    /**
+     * As for convert(IN, OFF, LEN, OUT), but storing the results in OUT
+     * starting at OUTOFF.
+     */
+    void convert(char[] in, int off, int len, char[] out, int outOff) {
+        long start = _metrics == null ? 0 : System.nanoTime();
+        if (traced()) {
+            int n = 0;
+            for (int i = 0; i < len; i++) {
+                out[outOff + i] = convertTraced(in[off + i]);
+                n += _alphabet.contains(in[off + i]) ? 1 : 0;
+            }
+            recordConversion(null, n, start);
+            return;
+        }
+        EnigmaEngine engine = engine();
+        int n = engine.convert(in, off, len, out, outOff);
+        engine.store(this);
+        recordConversion(engine, n, start);
+    }
+
+    /**
+     * Convert the remaining characters of IN into OUT, advancing the
+     * positions of both buffers and updating the state of the rotors
+     * accordingly.  Characters not in my alphabet are copied unchanged.
+     * OUT must have room for all of IN.
+     */
+    void convert(CharBuffer in, CharBuffer out) {
+        int len = in.remaining();
+        if (out.remaining() < len) {
+            throw error("output buffer too small");
+        }
+        if (in.hasArray() && out.hasArray()) {
+            convert(in.array(), in.arrayOffset() + in.position(), len,
+                    out.array(), out.arrayOffset() + out.position());
+            in.position(in.limit());
+            out.position(out.position() + len);
+        } else {
+            long start = _metrics == null ? 0 : System.nanoTime();
+            EnigmaEngine engine = traced() ? null : engine();
+            int n = 0;
+            while (in.hasRemaining()) {
+                char ch = in.get();
+                n += _alphabet.contains(ch) ? 1 : 0;
+                out.put(engine == null ? convertTraced(ch)
+                        : engine.convert(ch));
+            }
+            if (engine != null) {
+                engine.store(this);
+            }
+            recordConversion(engine, n, start);
+        }
+    }
+
+    /**
+     * Convert the LEN ASCII characters in IN starting at OFF, storing
+     * the results at the start of OUT and updating the state of the
+     * rotors accordingly.  Bytes that are not characters of my alphabet
+     * are copied unchanged.  IN and OUT may be the same array.  My
+     * alphabet must consist of ASCII characters.
+     */
+    void convert(byte[] in, int off, int len, byte[] out) {
+        if (!_alphabet.ascii()) {
+            throw error("alphabet is not ASCII");
+        }
+        long start = _metrics == null ? 0 : System.nanoTime();
+        if (traced()) {
+            int n = 0;
+            for (int i = 0; i < len; i++) {
+                char ch = (char) (in[off + i] & 0xff);
+                n += _alphabet.contains(ch) ? 1 : 0;
+                out[i] = (byte) convertTraced(ch);
+            }
+            recordConversion(null, n, start);
+            return;
+        }
+        EnigmaEngine engine = engine();
+        int n = engine.convert(in, off, len, out);
+        engine.store(this);
+        recordConversion(engine, n, start);
+    }
+
+    /**
+     * Record in my metrics, if I have any, a conversion call that began
+     * at System.nanoTime() START and converted N characters.  ENGINE is
+     * the engine that converted them, or null if they went through
+     * convert(int), which counts advances itself.  ENGINE's counts are
+     * drained even when I have no metrics, so that metrics set later
+     * do not see them.
+     */
+    private void recordConversion(EnigmaEngine engine, long n, long start) {
+        if (engine != null) {
+            engine.drain(_metrics, n);
+        }
+        if (_metrics == null) {
+            return;
+        }
+        _metrics.recordConversion(n, System.nanoTime() - start);
+    }
+
+    /**
+     * Return the conversion of character CH by convert(int), or CH
+     * itself if it is not in my alphabet.
+     */
+    private char convertTraced(char ch) {
+        int c = _alphabet.toInt(ch);
+        return c < 0 ? ch : _alphabet.toChar(convert(c));
+    }
+
+    /**
+     * Move my rotors to the settings that N calls of convert(int) would
+     * leave them in, without converting anything.  The cost does not
+     * depend on N.
+     */
+    void seek(long n) {
+        int[] settings = new int[_numRotors];
+        for (int k = 1; k < _numRotors; k += 1) {
+            settings[k] = getRotor(k).setting();
+        }
+        settings = odometer().seek(settings, n);
+        for (int k = 1; k < _numRotors; k += 1) {
+            getRotor(k).set(settings[k]);
+        }
+    }
+
+    /**
+     * Return the metrics into which I record my work, or null if I
+     * record none.
+     */
+    MachineMetrics metrics() {
+        return _metrics;
+    }
+
+    /**
+     * Record my work, and that of copies made from now on, into METRICS,
+     * or stop recording if METRICS is null.
+     */
+    void setMetrics(MachineMetrics metrics) {
+        _metrics = metrics;
+    }
+
+    /**
+     * Return the tracer to which my keystrokes are reported.
+     */
+    ConversionTracer tracer() {
+        return _tracer;
+    }
+
+    /**
+     * Return true iff I have a tracer, so that every keystroke must go
+     * through convert(int) rather than the engine.
+     */
+    private boolean traced() {
+        return _tracer != ConversionTracer.NONE;
+    }
+
+    /**
+     * Return an engine compiled from my current rotors and plugboard,
+     * with their current settings loaded.  Each stack of rotors keeps
+     * the engine last built for it, which is rebuilt only when the
+     * plugboard has changed since.
+     */
+    EnigmaEngine engine() {
+        if (_stack == null) {
+            throw error("no rotors inserted");
+        }
+        if (_stack.engine == null || _stack.enginePlugboard != _plugboard) {
+            _stack.engine = new EnigmaEngine(this);
+            _stack.enginePlugboard = _plugboard;
+        } else {
+            _stack.engine.load(this);
+        }
+        return _stack.engine;
+    }
+
+    /**
+     * Return the stepping structure of my current rotors.
+     */
+    private Odometer odometer() {
+        if (_stack == null) {
+            throw error("no rotors inserted");
+        }
+        if (_stack.odometer == null) {
+            _stack.odometer = new Odometer(this);
+        }
+        return _stack.odometer;
+    }
+
+    /**
+     * A selection of rotors for my slots, as my own copies of them, with
+     * the structures compiled from it.
+     */
+    private static final class Stack {
+
+        /**
+         * A stack of ROTORS, in slot order.
+         */
+        Stack(ArrayList<Rotor> rotors) {
+            this.rotors = rotors;
+        }
+
+        /**
+         * The rotors, in slot order.
+         */
+        final ArrayList<Rotor> rotors;
+
+        /**
+         * Engine last compiled from the rotors, or null.
+         */
+        EnigmaEngine engine;
+
+        /**
+         * Plugboard compiled into engine.
+         */
+        Permutation enginePlugboard;
+
+        /**
+         * Stepping structure of the rotors, or null if not yet built.
+         */
+        Odometer odometer;
+    }
+
+    /**
+     * Return a map that keeps at most SIZE entries, discarding the least
+     * recently used.
+     */
+    private static <K, V> Map<K, V> lruMap(int size) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > size;
+            }
+        };
+    }
+
+    /**
+     * Number of characters of a message converted by each task of
+     * convertParallel.
+     */
+    static final int PARALLEL_CHUNK = 1 << 16;
+
+    /**
+     * Number of rotor stacks kept by insertRotors.
+     */
+    static final int STACK_CACHE_SIZE = 64;
+
+    /**
+     * Number of plugboards kept by setPlugboard(String).
+     */
+    static final int PLUGBOARD_CACHE_SIZE = 256;
+
+    /**
+     * Recipient of counts and timings of my work, or null.
+     */
+    private MachineMetrics _metrics;
+
+    /**
+     * Receiver of the trace of each keystroke.
+     */
+    private final ConversionTracer _tracer;
+
+    /**
+     * Common alphabet of my rotors.
+     */
+    private final Alphabet _alphabet;
+
+    /**
+     * Number of rotors.
+     */
+    private final int _numRotors;
+
+    /**
+     * Number of pawls.
+     */
+    private final int _pawls;
+
+    /**
+     * Collection of all possible rotors, which are never set.
+     */
+    private final Collection<Rotor> _allRotors;
+
+    /**
+     * Available rotors by name.  Shared with my copies.
+     */
+    private final HashMap<String, Rotor> _rotorIndex;
+
+    /**
+     * Recently inserted stacks, by the names of their rotors.
+     */
+    private final Map<List<String>, Stack> _stacks =
+        lruMap(STACK_CACHE_SIZE);
+
+    /**
+     * Recently used plugboards, by their cycles.
+     */
+    private final Map<String, Permutation> _plugboards =
+        lruMap(PLUGBOARD_CACHE_SIZE);
+
+    /**
+     * The current stack, or null if no rotors have been inserted.
+     */
+    private Stack _stack;
+
+    /**
+     * ArrayList of current rotors in use (those of _stack).
+     */
+    private ArrayList<Rotor> _currRotors;
+
+    /**
+     * The alphabet in use.
+     */
+    private Permutation _plugboard;
+
+
+    /**
+     * Setting the current ring setting.
+     * @param temp ring setting.
+     */
+    public void setRings(String temp) {
+        for (int i = 1; i < _currRotors.size(); i++) {
+            Rotor c = _currRotors.get(i);
+            c.setRings(temp.charAt(i - 1));
+        }
+    }
+}
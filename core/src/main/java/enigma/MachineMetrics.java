@@ -0,0 +1,224 @@
+package enigma;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static enigma.EnigmaException.*;
+
+/**
+ * Counters and latency histograms for the machines that share an
+ * instance of this class (a Machine and its copies).  Counters are
+ * LongAdders, so machines in different threads can update them without
+ * contention.  A Machine without metrics does no timing or counting at
+ * all.
+ *
+ * @author Aishik Bhattacharyya
+ */
+class MachineMetrics implements MachineMetricsMXBean {
+
+    /**
+     * Metrics for machines with NUMROTORS rotor slots.
+     */
+    MachineMetrics(int numRotors) {
+        _advances = new LongAdder[numRotors];
+        for (int k = 0; k < numRotors; k += 1) {
+            _advances[k] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record a conversion call of N characters that took NANOS
+     * nanoseconds.
+     */
+    void recordConversion(long n, long nanos) {
+        _characters.add(n);
+        _conversions.increment();
+        _conversionNanos.record(nanos);
+    }
+
+    /**
+     * Record that the rotor in slot K advanced N times.
+     */
+    void recordAdvances(int k, long n) {
+        if (n != 0) {
+            _advances[k].add(n);
+        }
+    }
+
+    /**
+     * Record N double steps.
+     */
+    void recordDoubleSteps(long n) {
+        if (n != 0) {
+            _doubleSteps.add(n);
+        }
+    }
+
+    /**
+     * Record a settings line that took NANOS nanoseconds to apply.
+     */
+    void recordSettings(long nanos) {
+        _settingsChanges.increment();
+        _settingsNanos.record(nanos);
+    }
+
+    /**
+     * Record a call of insertRotors that took NANOS nanoseconds.
+     */
+    void recordInsertRotors(long nanos) {
+        _insertRotorsNanos.record(nanos);
+    }
+
+    /**
+     * Record a configuration read that took NANOS nanoseconds.
+     */
+    void recordReadConfig(long nanos) {
+        _readConfigNanos.record(nanos);
+    }
+
+    /**
+     * Register me with the platform MBean server under NAME, replacing
+     * any MBean already registered there, and return the name.
+     */
+    ObjectName register(String name) {
+        try {
+            ObjectName result = new ObjectName(name);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(result)) {
+                server.unregisterMBean(result);
+            }
+            server.registerMBean(this, result);
+            return result;
+        } catch (JMException excp) {
+            throw error("cannot register metrics as %s: %s", name,
+                        excp.getMessage());
+        }
+    }
+
+    @Override
+    public long getCharactersConverted() {
+        return _characters.sum();
+    }
+
+    @Override
+    public long getConversions() {
+        return _conversions.sum();
+    }
+
+    @Override
+    public long getSettingsChanges() {
+        return _settingsChanges.sum();
+    }
+
+    @Override
+    public long[] getRotorAdvances() {
+        long[] result = new long[_advances.length];
+        for (int k = 0; k < result.length; k += 1) {
+            result[k] = _advances[k].sum();
+        }
+        return result;
+    }
+
+    @Override
+    public long getDoubleSteps() {
+        return _doubleSteps.sum();
+    }
+
+    @Override
+    public Map<String, Long> getConversionNanos() {
+        return _conversionNanos.summary();
+    }
+
+    @Override
+    public Map<String, Long> getSettingsNanos() {
+        return _settingsNanos.summary();
+    }
+
+    @Override
+    public Map<String, Long> getInsertRotorsNanos() {
+        return _insertRotorsNanos.summary();
+    }
+
+    @Override
+    public Map<String, Long> getReadConfigNanos() {
+        return _readConfigNanos.summary();
+    }
+
+    /**
+     * Return a multi-line report of all my metrics.
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        result.append(String.format("characters converted: %d%n",
+                                    getCharactersConverted()));
+        result.append(String.format("conversions: %d%n", getConversions()));
+        result.append(String.format("settings changes: %d%n",
+                                    getSettingsChanges()));
+        result.append("rotor advances:");
+        for (long n : getRotorAdvances()) {
+            result.append(' ').append(n);
+        }
+        result.append(String.format("%ndouble steps: %d%n",
+                                    getDoubleSteps()));
+        result.append(String.format("conversion ns: %s%n",
+                                    getConversionNanos()));
+        result.append(String.format("settings ns: %s%n",
+                                    getSettingsNanos()));
+        result.append(String.format("insertRotors ns: %s%n",
+                                    getInsertRotorsNanos()));
+        result.append(String.format("readConfig ns: %s%n",
+                                    getReadConfigNanos()));
+        return result.toString();
+    }
+
+    /**
+     * Number of characters converted.
+     */
+    private final LongAdder _characters = new LongAdder();
+
+    /**
+     * Number of conversion calls.
+     */
+    private final LongAdder _conversions = new LongAdder();
+
+    /**
+     * Number of settings lines applied.
+     */
+    private final LongAdder _settingsChanges = new LongAdder();
+
+    /**
+     * Number of advances of each rotor slot.
+     */
+    private final LongAdder[] _advances;
+
+    /**
+     * Number of double steps.
+     */
+    private final LongAdder _doubleSteps = new LongAdder();
+
+    /**
+     * Durations of conversion calls.
+     */
+    private final LatencyHistogram _conversionNanos = new LatencyHistogram();
+
+    /**
+     * Durations of applying settings lines.
+     */
+    private final LatencyHistogram _settingsNanos = new LatencyHistogram();
+
+    /**
+     * Durations of insertRotors.
+     */
+    private final LatencyHistogram _insertRotorsNanos =
+        new LatencyHistogram();
+
+    /**
+     * Durations of reading configurations.
+     */
+    private final LatencyHistogram _readConfigNanos = new LatencyHistogram();
+}
@@ -0,0 +1,61 @@
+package enigma;
+
+import java.util.Map;
+
+/**
+ * The management interface of MachineMetrics.  Durations are summarized
+ * as maps from "count", "mean", "p50", "p90", "p99" and "max" to values
+ * in nanoseconds.
+ *
+ * @author Aishik Bhattacharyya
+ */
+public interface MachineMetricsMXBean {
+
+    /**
+     * Return the number of characters converted.
+     */
+    long getCharactersConverted();
+
+    /**
+     * Return the number of conversion calls (messages or pieces of
+     * messages) made.
+     */
+    long getConversions();
+
+    /**
+     * Return the number of settings lines applied.
+     */
+    long getSettingsChanges();
+
+    /**
+     * Return the number of times each rotor slot has advanced, indexed
+     * by slot; slot 0 is the reflector, which never moves.
+     */
+    long[] getRotorAdvances();
+
+    /**
+     * Return the number of times a rotor has advanced because of its own
+     * notch (the double step).
+     */
+    long getDoubleSteps();
+
+    /**
+     * Return a summary of the durations of conversion calls.
+     */
+    Map<String, Long> getConversionNanos();
+
+    /**
+     * Return a summary of the durations of applying settings lines.
+     */
+    Map<String, Long> getSettingsNanos();
+
+    /**
+     * Return a summary of the durations of Machine.insertRotors.
+     */
+    Map<String, Long> getInsertRotorsNanos();
+
+    /**
+     * Return a summary of the durations of reading configurations.
+     */
+    Map<String, Long> getReadConfigNanos();
+}
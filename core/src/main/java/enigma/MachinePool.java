@@ -0,0 +1,51 @@
+package enigma;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A pool of copies of one Machine, from which any number of threads may
+ * borrow a machine to configure and use, and then return it.  Borrowing
+ * and returning take no locks: idle machines are kept in a non-blocking
+ * queue, and a borrower that finds it empty makes a new copy, so that
+ * the pool grows to the largest number of machines in use at once.
+ *
+ * @author Aishik Bhattacharyya
+ */
+final class MachinePool {
+
+    /**
+     * A pool of copies of PROTOTYPE, which is itself never used and must
+     * not be changed while I am in use.
+     */
+    MachinePool(Machine prototype) {
+        _prototype = prototype;
+    }
+
+    /**
+     * Return a machine for the exclusive use of the caller until it is
+     * given back with release.  Its rotors and plugboard are as the last
+     * user left them.
+     */
+    Machine borrow() {
+        Machine result = _idle.poll();
+        return result == null ? _prototype.copy() : result;
+    }
+
+    /**
+     * Return MACHINE, obtained from borrow, to the pool.
+     */
+    void release(Machine machine) {
+        _idle.offer(machine);
+    }
+
+    /**
+     * The machine copied to fill the pool.
+     */
+    private final Machine _prototype;
+
+    /**
+     * Machines not in use.
+     */
+    private final ConcurrentLinkedQueue<Machine> _idle =
+        new ConcurrentLinkedQueue<>();
+}
@@ -15,16 +15,29 @@ class MovingRotor extends Rotor {
      * The Rotor is initally in its 0 setting (first character of its
      * alphabet).
      */
-    private String _notches;
+    private final String _notches;
 
     MovingRotor(String name, Permutation perm, String notches) {
         super(name, perm);
         _notches = notches;
     }
 
+    /**
+     * A copy of ROTOR, as for Rotor(Rotor).
+     */
+    MovingRotor(MovingRotor rotor) {
+        super(rotor);
+        _notches = rotor._notches;
+    }
+
+    @Override
+    MovingRotor copy() {
+        return new MovingRotor(this);
+    }
+
     @Override
     void advance() {
-        this.set(alphabet().toChar(alphabet().toInt(_pos) + 1));
+        set(setting() + 1);
     }
 
     @Override
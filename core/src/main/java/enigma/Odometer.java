@@ -0,0 +1,446 @@
+package enigma;
+
+import java.util.Arrays;
+
+import static enigma.EnigmaException.*;
+
+/**
+ * The stepping structure of a Machine's rotors, used to find the rotor
+ * settings after any number of keystrokes without making them one at a
+ * time.
+ *
+ * <p>Number the moving rotors from the fast rotor (level 0) leftwards.
+ * Each level moves only when the level to its right is at a notch, or
+ * (the double step) when it is itself at a notch and there is a pawl to
+ * its left, so levels 0..J together form a closed system that ignores
+ * everything to their left.  That system is eventually periodic: after
+ * a tail of some number of keystrokes its state repeats with some period.
+ * For level 0 the tail is empty and the period is the alphabet size.
+ * Given the tail and period of levels 0..J-1, sampling level J at the
+ * start of each period of the levels below gives a sequence of settings
+ * in which each depends only on the one before, so it repeats within
+ * size() + 1 samples; that yields the tail and period of levels 0..J.
+ * Between samples, a level changes only at the keystrokes where the
+ * level to its right is at a notch, and at its own double steps, so
+ * each level is simulated by jumping from one of those keystrokes to the
+ * next.  The work is polynomial in the alphabet size and independent of
+ * the number of keystrokes.
+ *
+ * @author Aishik Bhattacharyya
+ */
+final class Odometer {
+
+    /**
+     * The stepping structure of the rotors currently in M.
+     */
+    Odometer(Machine m) {
+        _size = m.alphabet().size();
+        _fast = m.numRotors() - 1;
+        if (m.getRotor(_fast) == null) {
+            throw error("no rotors inserted");
+        }
+        int leftmost = Math.max(_fast + 1 - m.numPawls(), 0);
+        int levels = _fast - Math.min(Math.max(leftmost, 1), _fast) + 1;
+        _notch = new boolean[levels][_size];
+        _rotates = new boolean[levels];
+        _doubleSteps = new boolean[levels];
+        for (int j = 0; j < levels; j += 1) {
+            Rotor r = m.getRotor(_fast - j);
+            for (int p = 0; p < _size; p += 1) {
+                _notch[j][p] =
+                    r.notches().indexOf(m.alphabet().toChar(p)) >= 0;
+            }
+            _rotates[j] = r.rotates();
+            _doubleSteps[j] = j > 0 && _fast - j > leftmost;
+        }
+    }
+
+    /**
+     * Return the number of levels, that is, of rotors that can be moved
+     * by the pawls.
+     */
+    int levels() {
+        return _rotates.length;
+    }
+
+    /**
+     * Return true iff level J double steps: it moves whenever it is at a
+     * notch, because there is a pawl to its left.
+     */
+    boolean doubleSteps(int j) {
+        return _doubleSteps[j];
+    }
+
+    /**
+     * Return the slot of the rotor at level J.
+     */
+    int slot(int j) {
+        return _fast - j;
+    }
+
+    /**
+     * Return the settings of the rotors N keystrokes after they have
+     * SETTINGS, where SETTINGS[K] is the setting of the rotor in slot K.
+     * Only the slots that have pawls change.
+     */
+    int[] seek(int[] settings, long n) {
+        if (n < 0) {
+            throw error("cannot seek backwards");
+        }
+        return settingsAt(settings, analyze(settings, levels() - 1), n);
+    }
+
+    /**
+     * Return the settings N keystrokes after SETTINGS (as for seek),
+     * where LEVELS is the analysis of all my levels from SETTINGS.  This
+     * allows one analysis to serve many seeks from the same start.
+     */
+    int[] settingsAt(int[] settings, Level[] levels, long n) {
+        int[] result = settings.clone();
+        for (int j = 0; j < levels.length; j += 1) {
+            result[_fast - j] = levels[j].settingAt(n);
+        }
+        return result;
+    }
+
+    /**
+     * Return the analysis of levels 0..TOP starting from SETTINGS (as
+     * for seek).
+     */
+    Level[] analyze(int[] settings, int top) {
+        return analyze(settings, top, false);
+    }
+
+    /**
+     * Return the analysis of levels 0..TOP starting from SETTINGS, as
+     * for analyze(SETTINGS, TOP), but with the notch times of level TOP
+     * recorded as well if TOPEVENTS.
+     */
+    Level[] analyze(int[] settings, int top, boolean topEvents) {
+        Level[] levels = new Level[top + 1];
+        levels[0] = new Level(settings[_fast]);
+        for (int j = 1; j <= top; j += 1) {
+            levels[j] = new Level(j, settings[_fast - j], levels[j - 1],
+                    j < top || topEvents);
+        }
+        return levels;
+    }
+
+    /**
+     * The trajectory of one level, together with the tail, period and
+     * notch times of that level and all those to its right.
+     */
+    final class Level {
+
+        /**
+         * The fast rotor (level 0), starting at setting START.
+         */
+        Level(int start) {
+            _level = 0;
+            _start = start;
+            _below = null;
+            _tail = 0;
+            _period = _rotates[0] ? _size : 1;
+            _tailEvents = new long[0];
+            LongList events = new LongList();
+            for (int t = 0; t < _period; t += 1) {
+                if (_notch[0][(start + t) % _size]) {
+                    events.add(t);
+                }
+            }
+            _cycleEvents = events.toArray();
+            _samples = null;
+        }
+
+        /**
+         * Level J, starting at setting START, with BELOW the level to its
+         * right.  Its notch times are recorded only if EVENTS.
+         */
+        Level(int j, int start, Level below, boolean events) {
+            _level = j;
+            _start = start;
+            _below = below;
+            _belowCycle = below.cycleOffsets();
+            LongList times = events ? new LongList() : null;
+            int p = walk(start, below._tail, below._tailEvents,
+                    below._tailEvents.length, 0, times);
+
+            int[] seen = new int[_size];
+            Arrays.fill(seen, -1);
+            int[] samples = new int[_size + 1];
+            int[] eventStart = new int[_size + 1];
+            int k;
+            for (k = 0; seen[p] < 0; k += 1) {
+                seen[p] = k;
+                samples[k] = p;
+                eventStart[k] = times == null ? 0 : times.size();
+                long base = below._tail + k * below._period;
+                p = walk(p, below._period, _belowCycle, _belowCycle.length,
+                        base, times);
+            }
+            _loopStart = seen[p];
+            _loopEnd = k;
+            _samples = Arrays.copyOf(samples, k);
+            long tail, period;
+            try {
+                tail = Math.addExact(below._tail,
+                        Math.multiplyExact(_loopStart, below._period));
+                period = Math.multiplyExact(_loopEnd - _loopStart,
+                        below._period);
+            } catch (ArithmeticException excp) {
+                if (events) {
+                    throw error("rotor period too long to analyze");
+                }
+                tail = period = -1;
+            }
+            _tail = tail;
+            _period = period;
+            if (times == null) {
+                _tailEvents = _cycleEvents = null;
+            } else {
+                int split = eventStart[_loopStart];
+                _tailEvents = times.slice(0, split);
+                _cycleEvents = times.slice(split, times.size());
+            }
+        }
+
+        /**
+         * Return my level.
+         */
+        int level() {
+            return _level;
+        }
+
+        /**
+         * Return a number of keystrokes after which levels 0..level()
+         * are in a state they will keep returning to, or -1 if it does
+         * not fit in a long.  This is the least such number rounded up
+         * to a period of the level to my right, not necessarily the
+         * least.
+         */
+        long tail() {
+            return _tail;
+        }
+
+        /**
+         * Return the number of keystrokes between repetitions of the
+         * state of levels 0..level() once they are past tail(), or -1
+         * if it does not fit in a long.
+         */
+        long period() {
+            return _period;
+        }
+
+        /**
+         * Return the times before tail() at which I am at a notch, or
+         * null if they were not recorded.
+         */
+        long[] tailEvents() {
+            return _tailEvents;
+        }
+
+        /**
+         * Return the times in the first period after tail() at which I
+         * am at a notch, or null if they were not recorded.
+         */
+        long[] cycleEvents() {
+            return _cycleEvents;
+        }
+
+        /**
+         * Return my setting after N keystrokes.
+         */
+        int settingAt(long n) {
+            if (_below == null) {
+                return _rotates[0] ? (int) ((_start + n) % _size) : _start;
+            }
+            if (n <= _below._tail) {
+                long[] drivers = _below._tailEvents;
+                return walk(_start, n, drivers, count(drivers, n), 0, null);
+            }
+            long k = (n - _below._tail) / _below._period;
+            long r = (n - _below._tail) % _below._period;
+            if (k >= _loopEnd) {
+                k = _loopStart + (k - _loopStart) % (_loopEnd - _loopStart);
+            }
+            return walk(_samples[(int) k], r, _belowCycle,
+                    count(_belowCycle, r), 0, null);
+        }
+
+        /**
+         * Return my notch times in my first period, relative to the
+         * start of that period.
+         */
+        private long[] cycleOffsets() {
+            long[] result = _cycleEvents.clone();
+            for (int i = 0; i < result.length; i += 1) {
+                result[i] -= _tail;
+            }
+            return result;
+        }
+
+        /**
+         * Return the result of moving this level, from setting P, through
+         * the LENGTH keystrokes of a stretch in which the level to my
+         * right is at a notch at the times DRIVERS[0 .. COUNT-1], taken
+         * relative to the start of the stretch.  If TIMES is not null,
+         * add to it the times, plus BASE, at which I am at a notch.
+         */
+        private int walk(int p, long length, long[] drivers, int count,
+                         long base, LongList times) {
+            if (!_rotates[_level]) {
+                return p;
+            }
+            boolean doubleSteps = _doubleSteps[_level];
+            boolean[] notch = _notch[_level];
+            long t = 0;
+            int d = 0;
+            while (true) {
+                if (doubleSteps && notch[p]) {
+                    if (t >= length) {
+                        break;
+                    }
+                    if (times != null) {
+                        times.add(base + t);
+                    }
+                    if (d < count && drivers[d] == t) {
+                        d += 1;
+                    }
+                    t += 1;
+                } else if (d < count) {
+                    t = drivers[d] + 1;
+                    d += 1;
+                } else {
+                    break;
+                }
+                p = p + 1 == _size ? 0 : p + 1;
+            }
+            return p;
+        }
+
+        /**
+         * My level.
+         */
+        private final int _level;
+
+        /**
+         * My setting at time 0.
+         */
+        private final int _start;
+
+        /**
+         * The level to my right, or null for the fast rotor.
+         */
+        private final Level _below;
+
+        /**
+         * The notch times of _below in its first period, relative to the
+         * start of that period.
+         */
+        private long[] _belowCycle;
+
+        /**
+         * Tail and period of levels 0..level().
+         */
+        private final long _tail, _period;
+
+        /**
+         * Notch times before _tail and in the first period after it.
+         */
+        private final long[] _tailEvents, _cycleEvents;
+
+        /**
+         * My setting at the start of each period of _below after its
+         * tail, up to the first repeat.
+         */
+        private final int[] _samples;
+
+        /**
+         * _samples[_loopEnd] would equal _samples[_loopStart].
+         */
+        private int _loopStart, _loopEnd;
+    }
+
+    /**
+     * Return the number of elements of the sorted array TIMES that are
+     * less than N.
+     */
+    private static int count(long[] times, long n) {
+        int k = Arrays.binarySearch(times, n);
+        return k >= 0 ? k : -k - 1;
+    }
+
+    /**
+     * A growable list of longs.
+     */
+    private static final class LongList {
+
+        /**
+         * Append X.
+         */
+        void add(long x) {
+            if (_size == _items.length) {
+                _items = Arrays.copyOf(_items, 2 * _items.length);
+            }
+            _items[_size] = x;
+            _size += 1;
+        }
+
+        /**
+         * Return my length.
+         */
+        int size() {
+            return _size;
+        }
+
+        /**
+         * Return my elements FROM .. TO-1.
+         */
+        long[] slice(int from, int to) {
+            return Arrays.copyOfRange(_items, from, to);
+        }
+
+        /**
+         * Return my elements.
+         */
+        long[] toArray() {
+            return slice(0, _size);
+        }
+
+        /**
+         * Elements, followed by unused space.
+         */
+        private long[] _items = new long[16];
+
+        /**
+         * Number of elements.
+         */
+        private int _size;
+    }
+
+    /**
+     * Size of the alphabet.
+     */
+    private final int _size;
+
+    /**
+     * Slot of the fast rotor.
+     */
+    private final int _fast;
+
+    /**
+     * _notch[J][P] is true iff level J has a notch at setting P.
+     */
+    private final boolean[][] _notch;
+
+    /**
+     * True for the levels whose rotors can move.
+     */
+    private final boolean[] _rotates;
+
+    /**
+     * True for the levels that double step, that is, that move when at
+     * a notch because there is a pawl to their left.
+     */
+    private final boolean[] _doubleSteps;
+}
@@ -1,6 +1,6 @@
 package enigma;
 
-import java.util.HashMap;
+import static enigma.EnigmaException.*;
 
 /**
  * Represents a permutation of a range of integers starting at 0 corresponding
@@ -19,9 +19,13 @@ class Permutation {
      */
     Permutation(String cycles, Alphabet alphabet) {
         _alphabet = alphabet;
-        _forward = new HashMap<>();
-        _backward = new HashMap<>();
-        String currGroup = "";
+        _forward = new int[alphabet.size()];
+        _backward = new int[alphabet.size()];
+        for (int i = 0; i < _forward.length; i += 1) {
+            _forward[i] = _backward[i] = i;
+        }
+        boolean[] seen = new boolean[alphabet.size()];
+        int[] cycle = new int[alphabet.size()];
         int count = 0;
         for (int i = 0; i < cycles.length(); i++) {
             if (cycles.charAt(i) == '(') {
@@ -33,31 +37,61 @@ class Permutation {
         if (count != 0) {
             throw new EnigmaException("Invalid permuation cycle");
         }
+        int len = 0;
         for (int i = 0; i < cycles.length(); i++) {
             char curr = cycles.charAt(i);
             if (curr == '(') {
-                currGroup = "";
-            } else if (curr != ')' && curr != ' ') {
-                currGroup += curr;
+                len = 0;
             } else if (curr == ')') {
-                addCycle(currGroup);
+                addCycle(cycle, len);
+            } else if (!Character.isWhitespace(curr)) {
+                int k = alphabet.toInt(curr);
+                if (k < 0 || k >= seen.length) {
+                    throw error("character %c not in alphabet", curr);
+                }
+                if (seen[k]) {
+                    throw error("character %c repeated in permutation",
+                            curr);
+                }
+                seen[k] = true;
+                cycle[len] = k;
+                len += 1;
+            }
+        }
+    }
+
+    /**
+     * A permutation of ALPHABET that maps each index I to FORWARD[I].
+     * FORWARD must contain each index of ALPHABET exactly once.
+     */
+    Permutation(int[] forward, Alphabet alphabet) {
+        if (forward.length != alphabet.size()) {
+            throw error("permutation table has wrong size");
+        }
+        _alphabet = alphabet;
+        _forward = forward.clone();
+        _backward = new int[forward.length];
+        boolean[] seen = new boolean[forward.length];
+        for (int i = 0; i < forward.length; i += 1) {
+            int c = forward[i];
+            if (c < 0 || c >= forward.length || seen[c]) {
+                throw error("permutation table is not a permutation");
             }
+            seen[c] = true;
+            _backward[c] = i;
         }
     }
 
     /**
-     * Add the cycle c0->c1->...->cm->c0 to the permutation, where CYCLE is
-     * c0c1...cm.
+     * Add the cycle c0->c1->...->cm->c0 to the permutation, where the
+     * first LEN entries of CYCLE are the indices of c0c1...cm.
      */
-    private void addCycle(String cycle) {
-        StringBuilder sb = new StringBuilder(cycle);
-        String reversed = sb.reverse().toString();
-        for (int i = 0; i < cycle.length() - 1; i++) {
-            _forward.put(cycle.charAt(i), cycle.charAt(i + 1));
-            _backward.put(reversed.charAt(i), reversed.charAt(i + 1));
+    private void addCycle(int[] cycle, int len) {
+        for (int i = 0; i < len; i++) {
+            int next = cycle[(i + 1) % len];
+            _forward[cycle[i]] = next;
+            _backward[next] = cycle[i];
         }
-        _forward.put(cycle.charAt(cycle.length() - 1), cycle.charAt(0));
-        _backward.put(reversed.charAt(cycle.length() - 1), reversed.charAt(0));
     }
 
     /**
@@ -83,14 +117,7 @@ class Permutation {
      * alphabet size.
      */
     int permute(int p) {
-        int modded = ((p % _alphabet.size())
-                + _alphabet.size()) % _alphabet.size();
-        char val = _alphabet.toChar(modded);
-        if (!_forward.containsKey(val)) {
-            return modded;
-        }
-        char next = _forward.get(val);
-        return _alphabet.toInt(next);
+        return _forward[wrap(p)];
     }
 
     /**
@@ -98,14 +125,7 @@ class Permutation {
      * to  C modulo the alphabet size.
      */
     int invert(int c) {
-        int modded = ((c % _alphabet.size())
-                + _alphabet.size()) % _alphabet.size();
-        char val = _alphabet.toChar(modded);
-        if (!_backward.containsKey(val)) {
-            return modded;
-        }
-        char next = _backward.get(val);
-        return _alphabet.toInt(next);
+        return _backward[wrap(c)];
     }
 
     /**
@@ -114,20 +134,20 @@ class Permutation {
      * the result to a character of ALPHABET.
      */
     char permute(char p) {
-        if (!_forward.containsKey(p)) {
+        if (!_alphabet.contains(p)) {
             return p;
         }
-        return _forward.get(p);
+        return _alphabet.toChar(_forward[_alphabet.toInt(p)]);
     }
 
     /**
      * Return the result of applying the inverse of this permutation to C.
      */
     char invert(char c) {
-        if (!_backward.containsKey(c)) {
+        if (!_alphabet.contains(c)) {
             return c;
         }
-        return _backward.get(c);
+        return _alphabet.toChar(_backward[_alphabet.toInt(c)]);
     }
 
     /**
@@ -137,42 +157,31 @@ class Permutation {
         return _alphabet;
     }
 
-    void setAlphabet(Alphabet a) {
-        _alphabet = a;
-    }
-
     /**
      * Return true iff this permutation is a derangement (i.e., a
      * permutation for which no value maps to itself).
      */
     boolean derangement() {
-        for (char c : _forward.keySet()) {
-            if (_forward.get(c) == c) {
+        for (int i = 0; i < _forward.length; i += 1) {
+            if (_forward[i] == i) {
                 return false;
             }
         }
-
-        for (char c : _backward.keySet()) {
-            if (_backward.get(c) == c) {
-                return false;
-            }
-        }
-
-        return _forward.keySet().size() == _alphabet.size();
+        return true;
     }
 
     /**
      * Alphabet of this permutation.
      */
-    private Alphabet _alphabet;
+    private final Alphabet _alphabet;
 
     /**
-     * Keeps track of all forward permutations.
+     * Index of the image of each alphabet index under this permutation.
      */
-    private HashMap<Character, Character> _forward;
+    private final int[] _forward;
 
     /**
-     * Keeps track of all backward permutations.
+     * Index of the image of each alphabet index under the inverse.
      */
-    private HashMap<Character, Character> _backward;
+    private final int[] _backward;
 }
@@ -17,6 +17,18 @@ class Reflector extends FixedRotor {
         super(name, perm);
     }
 
+    /**
+     * A copy of ROTOR, as for Rotor(Rotor).
+     */
+    Reflector(Reflector rotor) {
+        super(rotor);
+    }
+
+    @Override
+    Reflector copy() {
+        return new Reflector(this);
+    }
+
     @Override
     boolean reflecting() {
         return true;
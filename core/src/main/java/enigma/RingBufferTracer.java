@@ -0,0 +1,215 @@
+package enigma;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static enigma.EnigmaException.*;
+
+/**
+ * A ConversionTracer that keeps the traces of the last few keystrokes in
+ * memory, for inspection after the fact.  It may be shared by machines
+ * running in different threads: each thread builds its current trace
+ * separately, and finished traces are published into a fixed ring of
+ * slots without locking.
+ *
+ * @author Aishik Bhattacharyya
+ */
+class RingBufferTracer implements ConversionTracer {
+
+    /**
+     * A tracer that keeps the last CAPACITY traces.
+     */
+    RingBufferTracer(int capacity) {
+        if (capacity <= 0) {
+            throw error("trace capacity must be positive");
+        }
+        _traces = new AtomicReferenceArray<>(capacity);
+    }
+
+    @Override
+    public void start(Machine machine, int c) {
+        Builder current = _current.get();
+        current._alphabet = machine.alphabet();
+        current._settings = new int[machine.numRotors() - 1];
+        for (int r = 1; r < machine.numRotors(); r += 1) {
+            current._settings[r - 1] = machine.getRotor(r).setting();
+        }
+        current._length = 0;
+        current.add(c);
+    }
+
+    @Override
+    public void stage(int c) {
+        _current.get().add(c);
+    }
+
+    @Override
+    public void finish(int c) {
+        Builder current = _current.get();
+        current.add(c);
+        int[] path = Arrays.copyOf(current._path, current._length);
+        Trace trace = new Trace(current._alphabet, current._settings, path);
+        long n = _count.getAndIncrement();
+        _traces.set((int) (n % _traces.length()), trace);
+    }
+
+    /**
+     * Return the number of keystrokes traced so far.
+     */
+    long count() {
+        return _count.get();
+    }
+
+    /**
+     * Return the most recent traces, at most as many as my capacity,
+     * oldest first.  Traces finished while this runs may or may not be
+     * included.
+     */
+    List<Trace> traces() {
+        int capacity = _traces.length();
+        long end = _count.get();
+        ArrayList<Trace> result = new ArrayList<>();
+        for (long n = Math.max(0, end - capacity); n < end; n += 1) {
+            Trace trace = _traces.get((int) (n % capacity));
+            if (trace != null) {
+                result.add(trace);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The record of one keystroke.
+     */
+    static final class Trace {
+
+        /**
+         * The keystroke on a machine with alphabet ALPHABET whose rotors
+         * (after the reflector) were at SETTINGS, passing through the
+         * characters in PATH, from input to output.
+         */
+        Trace(Alphabet alphabet, int[] settings, int[] path) {
+            _alphabet = alphabet;
+            _settings = settings;
+            _path = path;
+        }
+
+        /**
+         * Return the settings of the rotors after the reflector, left to
+         * right, when the keystroke was converted.
+         */
+        int[] settings() {
+            return _settings.clone();
+        }
+
+        /**
+         * Return the input, intermediate results and output of the
+         * conversion, in order.
+         */
+        int[] path() {
+            return _path.clone();
+        }
+
+        /**
+         * Return the character converted.
+         */
+        int input() {
+            return _path[0];
+        }
+
+        /**
+         * Return the result of the conversion.
+         */
+        int output() {
+            return _path[_path.length - 1];
+        }
+
+        /**
+         * Return the trace in the format printed by VerboseTracer,
+         * without the line terminator.
+         */
+        @Override
+        public String toString() {
+            StringBuilder result = new StringBuilder("[");
+            for (int s : _settings) {
+                result.append(_alphabet.toChar(s));
+            }
+            result.append("] ").append(_alphabet.toChar(_path[0]));
+            for (int i = 1; i < _path.length; i += 1) {
+                result.append(" -> ").append(_alphabet.toChar(_path[i]));
+            }
+            return result.toString();
+        }
+
+        /**
+         * Alphabet of the machine traced.
+         */
+        private final Alphabet _alphabet;
+
+        /**
+         * Rotor settings during the keystroke.
+         */
+        private final int[] _settings;
+
+        /**
+         * Characters the keystroke passed through.
+         */
+        private final int[] _path;
+    }
+
+    /**
+     * A trace under construction by one thread.
+     */
+    private static final class Builder {
+
+        /**
+         * Append C to my path.
+         */
+        void add(int c) {
+            if (_length == _path.length) {
+                _path = Arrays.copyOf(_path, 2 * _length);
+            }
+            _path[_length] = c;
+            _length += 1;
+        }
+
+        /**
+         * Alphabet of the machine traced.
+         */
+        private Alphabet _alphabet;
+
+        /**
+         * Rotor settings during the keystroke.
+         */
+        private int[] _settings;
+
+        /**
+         * Characters passed through so far, in _path[0 .. _length-1].
+         */
+        private int[] _path = new int[16];
+
+        /**
+         * Number of characters in _path.
+         */
+        private int _length;
+    }
+
+    /**
+     * Each thread's current trace.
+     */
+    private final ThreadLocal<Builder> _current =
+        ThreadLocal.withInitial(Builder::new);
+
+    /**
+     * Finished traces; trace number N is in slot N % capacity.
+     */
+    private final AtomicReferenceArray<Trace> _traces;
+
+    /**
+     * Number of traces finished.
+     */
+    private final AtomicLong _count = new AtomicLong();
+}
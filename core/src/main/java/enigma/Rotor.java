@@ -0,0 +1,271 @@
+package enigma;
+
+import static enigma.EnigmaException.*;
+
+/**
+ * Superclass that represents a rotor in the enigma machine.  A rotor's
+ * name, wiring and notches never change, and its copies share them; only
+ * its setting and ring setting are its own.  The rotors in a Machine's
+ * catalogue serve as definitions, and are never set: each Machine
+ * inserts copies of them.
+ *
+ * @author Aishik Bhattacharyya
+ */
+class Rotor {
+
+    /**
+     * A rotor named NAME whose permutation is given by PERM.
+     */
+    Rotor(String name, Permutation perm) {
+        _name = name;
+        _permutation = perm;
+        if (perm.size() <= MAX_TABLE_SIZE) {
+            _forwardTable = compile(true);
+            _backwardTable = compile(false);
+        } else {
+            _forwardTable = _backwardTable = null;
+        }
+        setOffset();
+    }
+
+    /**
+     * A copy of ROTOR, with the same setting and ring setting, that
+     * shares its permutation and tables.
+     */
+    Rotor(Rotor rotor) {
+        _name = rotor._name;
+        _permutation = rotor._permutation;
+        _forwardTable = rotor._forwardTable;
+        _backwardTable = rotor._backwardTable;
+        _pos = rotor._pos;
+        _ringSetting = rotor._ringSetting;
+        setOffset();
+    }
+
+    /**
+     * Return a copy of me whose setting can be changed independently of
+     * mine.
+     */
+    Rotor copy() {
+        return new Rotor(this);
+    }
+
+    /**
+     * Return my permutation (if FORWARD) or its inverse as seen at each
+     * offset between my setting and my ring setting.
+     */
+    private int[][] compile(boolean forward) {
+        int n = size();
+        int[][] result = new int[n][n];
+        for (int off = 0; off < n; off += 1) {
+            for (int c = 0; c < n; c += 1) {
+                int d = forward ? _permutation.permute(c + off)
+                    : _permutation.invert(c + off);
+                result[off][c] = _permutation.wrap(d - off);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Recompute my offset, and the table rows for it, after a change to
+     * my setting or ring setting.
+     */
+    private void setOffset() {
+        _offset = _permutation.wrap(_pos - _ringSetting);
+        if (_forwardTable != null) {
+            _forwardRow = _forwardTable[_offset];
+            _backwardRow = _backwardTable[_offset];
+        }
+    }
+
+    /**
+     * Return my name.
+     */
+    String name() {
+        return _name;
+    }
+
+    /**
+     * Return my alphabet.
+     */
+    Alphabet alphabet() {
+        return _permutation.alphabet();
+    }
+
+    /**
+     * Return my permutation.
+     */
+    Permutation permutation() {
+        return _permutation;
+    }
+
+    /**
+     * Return the size of my alphabet.
+     */
+    int size() {
+        return _permutation.size();
+    }
+
+    /**
+     * Return true iff I have a ratchet and can move.
+     */
+    boolean rotates() {
+        return false;
+    }
+
+    /**
+     * Return true iff I reflect.
+     */
+    boolean reflecting() {
+        return false;
+    }
+
+    /**
+     * Return my current setting.
+     */
+    int setting() {
+        return _pos;
+    }
+
+    /**
+     * Return my ring setting.
+     */
+    int ringSetting() {
+        return _ringSetting;
+    }
+
+    /**
+     * Set setting() to POSN.
+     */
+    void set(int posn) {
+        _pos = _permutation.wrap(posn);
+        setOffset();
+    }
+
+    /**
+     * Set setting() to character CPOSN.
+     */
+    void set(char cposn) {
+        set(alphabet().toInt(cposn));
+    }
+
+    /**
+     * Return the conversion of P (an integer in the range 0..size()-1)
+     * according to my permutation.
+     */
+    int convertForward(int p) {
+        int result;
+        if (_forwardRow != null) {
+            result = _forwardRow[p];
+        } else {
+            result = _permutation.wrap(
+                    _permutation.permute(p + _offset) - _offset);
+        }
+        return result;
+    }
+
+    /**
+     * Return the conversion of E (an integer in the range 0..size()-1)
+     * according to the inverse of my permutation.
+     */
+    int convertBackward(int e) {
+        int result;
+        if (_backwardRow != null) {
+            result = _backwardRow[e];
+        } else {
+            result = _permutation.wrap(
+                    _permutation.invert(e + _offset) - _offset);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the positions of the notches, as a string giving the letters
+     * on the ring at which they occur.
+     */
+    String notches() {
+        return "";
+    }
+
+    /**
+     * Returns true iff I am positioned to allow the rotor to my left
+     * to advance.
+     */
+    boolean atNotch() {
+        return notches().indexOf(alphabet().toChar(_pos)) >= 0;
+    }
+
+    /**
+     * Advance me one position, if possible. By default, does nothing.
+     */
+    void advance() {
+    }
+
+    @Override
+    public String toString() {
+        return "Rotor " + _name;
+    }
+
+    /**
+     * My name.
+     */
+    private final String _name;
+
+    /**
+     * The permutation implemented by this rotor in its 0 position.
+     */
+    private final Permutation _permutation;
+
+    /**
+     * Largest alphabet for which I precompute my conversion tables. Above
+     * this, convertForward and convertBackward do the arithmetic per call.
+     */
+    static final int MAX_TABLE_SIZE = 128;
+
+    /**
+     * Position of rotor.
+     */
+    private int _pos;
+
+    /**
+     * Ring setting of rotor.
+     */
+    private int _ringSetting;
+
+    /**
+     * Setting less ring setting, modulo size().
+     */
+    private int _offset;
+
+    /**
+     * My forward conversion at each offset, or null if my alphabet is
+     * larger than MAX_TABLE_SIZE.
+     */
+    private final int[][] _forwardTable;
+
+    /**
+     * My backward conversion at each offset, or null if my alphabet is
+     * larger than MAX_TABLE_SIZE.
+     */
+    private final int[][] _backwardTable;
+
+    /**
+     * Row of _forwardTable for my current offset.
+     */
+    private int[] _forwardRow;
+
+    /**
+     * Row of _backwardTable for my current offset.
+     */
+    private int[] _backwardRow;
+
+    /**
+     * Set ring setting.
+     * @param setting
+     */
+    public void setRings(char setting) {
+        _ringSetting = alphabet().toInt(setting);
+        setOffset();
+    }
+}
@@ -0,0 +1,53 @@
+package enigma;
+
+import java.io.PrintStream;
+
+/**
+ * A ConversionTracer that prints one line for each keystroke: the rotor
+ * settings in brackets, then the input and each intermediate result,
+ * separated by arrows.  For example, "[AAAB] H -> H -> ... -> I".
+ *
+ * @author Aishik Bhattacharyya
+ */
+class VerboseTracer implements ConversionTracer {
+
+    /**
+     * A tracer that prints to OUT.
+     */
+    VerboseTracer(PrintStream out) {
+        _out = out;
+    }
+
+    @Override
+    public void start(Machine machine, int c) {
+        _alphabet = machine.alphabet();
+        _out.print('[');
+        for (int r = 1; r < machine.numRotors(); r += 1) {
+            _out.print(_alphabet.toChar(machine.getRotor(r).setting()));
+        }
+        _out.print("] ");
+        _out.print(_alphabet.toChar(c));
+    }
+
+    @Override
+    public void stage(int c) {
+        _out.print(" -> ");
+        _out.print(_alphabet.toChar(c));
+    }
+
+    @Override
+    public void finish(int c) {
+        stage(c);
+        _out.println();
+    }
+
+    /**
+     * Destination of the trace.
+     */
+    private final PrintStream _out;
+
+    /**
+     * Alphabet of the machine being traced.
+     */
+    private Alphabet _alphabet;
+}
@@ -0,0 +1,102 @@
+package enigma;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import java.util.ArrayList;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import static org.junit.Assert.*;
+
+import static enigma.TestUtils.*;
+
+/**
+ * The suite of all JUnit tests for the ConfigCache class.
+ *
+ * @author
+ */
+public class ConfigCacheTest {
+
+    /**
+     * Testing time limit.
+     */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(5);
+
+    /**
+     * Directory for the cache.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /* ***** TESTING UTILITIES ***** */
+
+    private static final byte[] TEXT =
+        "some configuration".getBytes(StandardCharsets.UTF_8);
+
+    /** Return a machine with the Naval rotors B, Beta, III, IV and I. */
+    private Machine machine() {
+        ArrayList<Rotor> rotors = new ArrayList<>();
+        rotors.add(new Reflector("B", new Permutation(NAVALA.get("B"), UPPER)));
+        rotors.add(new FixedRotor("Beta",
+                new Permutation(NAVALA.get("Beta"), UPPER)));
+        rotors.add(new MovingRotor("III",
+                new Permutation(NAVALA.get("III"), UPPER), "V"));
+        rotors.add(new MovingRotor("IV",
+                new Permutation(NAVALA.get("IV"), UPPER), "J"));
+        rotors.add(new MovingRotor("I",
+                new Permutation(NAVALA.get("I"), UPPER), "Q"));
+        return new Machine(UPPER, 5, 3, rotors);
+    }
+
+    /** Return the conversion of "FROMHISSHOULDERHIAWATHA" by MACH. */
+    private String convert(Machine mach) {
+        mach.insertRotors(new String[] {"B", "Beta", "III", "IV", "I"});
+        mach.setRotors("AXLE");
+        mach.setPlugboard(new Permutation("(HQ) (EX) (IP) (TR) (BY)",
+                                          UPPER));
+        return mach.convert("FROMHISSHOULDERHIAWATHA");
+    }
+
+    /* ***** TESTS ***** */
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path dir = folder.getRoot().toPath().resolve("cache");
+        ConfigCache cache = new ConfigCache(dir);
+        assertNull(cache.load(TEXT, ConversionTracer.NONE));
+        cache.store(TEXT, machine());
+
+        Machine loaded = new ConfigCache(dir).load(TEXT,
+                                                   ConversionTracer.NONE);
+        assertNotNull(loaded);
+        assertEquals(5, loaded.numRotors());
+        assertEquals(3, loaded.numPawls());
+        assertEquals(UPPER_STRING.length(), loaded.alphabet().size());
+        assertEquals("QVPQSOKOILPUBKJZPISFXDW", convert(loaded));
+
+        byte[] other = "another configuration".getBytes(
+            StandardCharsets.UTF_8);
+        assertNull(cache.load(other, ConversionTracer.NONE));
+    }
+
+    @Test
+    public void testCorruptFileIgnored() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        ConfigCache cache = new ConfigCache(dir);
+        cache.store(TEXT, machine());
+        try (Stream<Path> files = Files.list(dir)) {
+            Path file = files.findFirst().get();
+            byte[] data = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(data, data.length / 2));
+        }
+        assertNull(cache.load(TEXT, ConversionTracer.NONE));
+    }
+}
@@ -0,0 +1,376 @@
+package enigma;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+
+import static org.junit.Assert.*;
+
+/**
+ * The suite of all JUnit tests for the Machine class.
+ *
+ * @author
+ */
+public class MachineTest {
+
+    /**
+     * Testing time limit.
+     */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(5);
+
+    /* ***** TESTS ***** */
+
+    private static final Alphabet AZ = new Alphabet(TestUtils.UPPER_STRING);
+
+    private static final HashMap<String, Rotor> ROTORS = new HashMap<>();
+
+
+    static {
+        HashMap<String, String> nav = TestUtils.NAVALA;
+        ROTORS.put("B", new Reflector("B", new Permutation(nav.get("B"), AZ)));
+        ROTORS.put("Beta",
+                new FixedRotor("Beta",
+                        new Permutation(nav.get("Beta"), AZ)));
+        ROTORS.put("III",
+                new MovingRotor("III",
+                        new Permutation(nav.get("III"), AZ), "V"));
+        ROTORS.put("IV",
+                new MovingRotor("IV", new Permutation(nav.get("IV"), AZ),
+                        "J"));
+        ROTORS.put("I",
+                new MovingRotor("I", new Permutation(nav.get("I"), AZ),
+                        "Q"));
+    }
+
+    private static final String[] ROTORS1 = {"B", "Beta", "III", "IV", "I"};
+    private static final String SETTING1 = "AXLE";
+
+    private Machine mach1() {
+        Machine mach = new Machine(AZ, 5, 3, ROTORS.values());
+        mach.insertRotors(ROTORS1);
+        mach.setRotors(SETTING1);
+        return mach;
+    }
+
+    @Test
+    public void testInsertRotors() {
+        Machine mach = new Machine(AZ, 5, 3, ROTORS.values());
+        mach.insertRotors(ROTORS1);
+        assertEquals(5, mach.numRotors());
+        assertEquals(3, mach.numPawls());
+        assertEquals(AZ, mach.alphabet());
+        for (int k = 0; k < ROTORS1.length; k += 1) {
+            assertEquals(ROTORS1[k], mach.getRotor(k).name());
+            assertNotSame(ROTORS.get(ROTORS1[k]), mach.getRotor(k));
+        }
+    }
+
+    @Test
+    public void testSharedRotors() {
+        String msg = "FROMHISSHOULDERHIAWATHA";
+        Machine mach1 = mach1();
+        Machine mach2 = mach1();
+        mach2.setRotors("BCDE");
+        mach2.setRings("FGHI");
+        mach1.setPlugboard("(HQ) (EX) (IP) (TR) (BY)");
+        mach2.setPlugboard("");
+        String expected2 = mach2.convert(msg);
+        mach2.setRotors("BCDE");
+        String got1 = "";
+        String got2 = "";
+        for (int i = 0; i < msg.length(); i += 1) {
+            got1 += mach1.convert(msg.substring(i, i + 1));
+            got2 += mach2.convert(msg.substring(i, i + 1));
+        }
+        assertEquals("QVPQSOKOILPUBKJZPISFXDW", got1);
+        assertEquals(expected2, got2);
+        for (Rotor r : ROTORS.values()) {
+            assertEquals(0, r.setting());
+            assertEquals(0, r.ringSetting());
+        }
+    }
+
+    @Test
+    public void testReinsertRotors() {
+        String msg = "FROMHISSHOULDERHIAWATHA";
+        Machine mach = mach1();
+        mach.setPlugboard("(HQ) (EX) (IP) (TR) (BY)");
+        Permutation plugboard = mach.plugboard();
+        assertEquals("QVPQSOKOILPUBKJZPISFXDW", mach.convert(msg));
+
+        mach.insertRotors(new String[] {"B", "Beta", "I", "IV", "III"});
+        mach.setRotors(SETTING1);
+        mach.setPlugboard("");
+        String other = mach.convert(msg);
+        assertNotEquals("QVPQSOKOILPUBKJZPISFXDW", other);
+
+        mach.insertRotors(ROTORS1);
+        assertEquals("I", mach.getRotor(4).name());
+        mach.setRotors(SETTING1);
+        mach.setPlugboard("(HQ) (EX) (IP) (TR) (BY)");
+        assertSame(plugboard, mach.plugboard());
+        assertEquals("QVPQSOKOILPUBKJZPISFXDW", mach.convert(msg));
+
+        try {
+            mach.insertRotors(new String[] {"B", "Beta", "III", "IV", "X"});
+            fail("unknown rotor accepted");
+        } catch (EnigmaException excp) {
+            assertEquals("I", mach.getRotor(4).name());
+        }
+    }
+
+    @Test
+    public void testReinsertResetsRotors() {
+        Machine mach = mach1();
+        mach.setRotors("XYZW");
+        mach.setRings("CDEF");
+        mach.insertRotors(new String[] {"B", "Beta", "I", "IV", "III"});
+        mach.insertRotors(ROTORS1);
+        for (int k = 1; k < mach.numRotors(); k += 1) {
+            assertEquals(0, mach.getRotor(k).setting());
+            assertEquals(0, mach.getRotor(k).ringSetting());
+        }
+        mach.setRotors(SETTING1);
+        mach.setPlugboard("(HQ) (EX) (IP) (TR) (BY)");
+        assertEquals("QVPQSOKOILPUBKJZPISFXDW",
+                     mach.convert("FROMHISSHOULDERHIAWATHA"));
+    }
+
+    @Test
+    public void testConvertChar() {
+        Machine mach = mach1();
+        mach.setPlugboard(new Permutation("(YF) (HZ)", AZ));
+        assertEquals(25, mach.convert(24));
+    }
+
+    @Test
+    public void testConvertMsg() {
+        Machine mach = mach1();
+        mach.setPlugboard(new Permutation("(HQ) (EX) (IP) (TR) (BY)", AZ));
+        assertEquals("QVPQSOKOILPUBKJZPISFXDW",
+                mach.convert("FROMHISSHOULDERHIAWATHA"));
+    }
+
+    @Test
+    public void testEngineMatchesConvertChar() {
+        String msg = "THEQUICKBROWNFOXJUMPSOVERTHELAZYDOG".repeat(40);
+        String[] settings = {"AXLE", "AAAA", "AAUQ", "ADUQ", "ZZEV"};
+        String[] rings = {"AAAA", "BQZF"};
+        for (String setting : settings) {
+            for (String ring : rings) {
+                Machine mach = mach1();
+                mach.setPlugboard(new Permutation("(HQ) (EX) (IP)", AZ));
+                mach.setRotors(setting);
+                mach.setRings(ring);
+                String expected = "";
+                for (int i = 0; i < msg.length(); i += 1) {
+                    expected += AZ.toChar(mach.convert(AZ.toInt(
+                            msg.charAt(i))));
+                }
+                int[] after = new int[5];
+                for (int k = 1; k < 5; k += 1) {
+                    after[k] = mach.getRotor(k).setting();
+                }
+                mach.setRotors(setting);
+                assertEquals(expected, mach.convert(msg));
+                for (int k = 1; k < 5; k += 1) {
+                    assertEquals(after[k], mach.getRotor(k).setting());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBulkConvert() {
+        String msg = "FROM HIS SHOULDER HIAWATHA";
+        String expected = "QVPQ SOK OILPUBKJ ZPISFXDW";
+
+        Machine mach = mach1();
+        mach.setPlugboard(new Permutation("(HQ) (EX) (IP) (TR) (BY)", AZ));
+        char[] chars = ("**" + msg).toCharArray();
+        mach.convert(chars, 2, msg.length(), chars);
+        assertEquals(expected, new String(chars, 0, msg.length()));
+
+        mach.setRotors(SETTING1);
+        CharBuffer out = CharBuffer.allocate(msg.length());
+        mach.convert(CharBuffer.wrap((CharSequence) msg), out);
+        assertEquals(expected, out.flip().toString());
+
+        mach.setRotors(SETTING1);
+        byte[] bytes = msg.getBytes(StandardCharsets.US_ASCII);
+        mach.convert(bytes, 0, bytes.length, bytes);
+        assertEquals(expected, new String(bytes, StandardCharsets.US_ASCII));
+    }
+
+    /** Return the settings of MACH's rotors, as letters. */
+    private String settings(Machine mach) {
+        String result = "";
+        for (int k = 1; k < mach.numRotors(); k += 1) {
+            result += AZ.toChar(mach.getRotor(k).setting());
+        }
+        return result;
+    }
+
+    /** Check that seek agrees with stepping MACH from each of SETTINGS. */
+    private void checkSeek(Machine mach, String... settings) {
+        int[] counts = {0, 1, 2, 25, 26, 27, 650, 651, 5000, 16900, 17000};
+        for (String setting : settings) {
+            for (int n : counts) {
+                mach.setRotors(setting);
+                char[] keys = "A".repeat(n).toCharArray();
+                mach.convert(keys, 0, n, keys);
+                String expected = settings(mach);
+                mach.setRotors(setting);
+                mach.seek(n);
+                assertEquals(setting + " + " + n, expected, settings(mach));
+            }
+            mach.setRotors(setting);
+            mach.seek(1L << 40);
+            String expected = settings(mach);
+            mach.setRotors(setting);
+            mach.seek((1L << 40) - 12345);
+            mach.seek(12345);
+            assertEquals(expected, settings(mach));
+        }
+    }
+
+    @Test
+    public void testSeek() {
+        Machine mach = mach1();
+        mach.setPlugboard(new Permutation("", AZ));
+        checkSeek(mach, SETTING1, "AAAA", "AADU", "ADUQ", "AEUQ", "ZZEV");
+
+        HashMap<String, String> nav = TestUtils.NAVALA;
+        HashMap<String, Rotor> rotors = new HashMap<>();
+        rotors.put("C", new Reflector("C", new Permutation(nav.get("C"), AZ)));
+        rotors.put("VI", new MovingRotor("VI",
+                new Permutation(nav.get("VI"), AZ), "ZM"));
+        rotors.put("VIII", new MovingRotor("VIII",
+                new Permutation(nav.get("VIII"), AZ), "ZM"));
+        rotors.put("II", new MovingRotor("II",
+                new Permutation(nav.get("II"), AZ), "E"));
+        rotors.put("V", new MovingRotor("V",
+                new Permutation(nav.get("V"), AZ), "Z"));
+        Machine mach2 = new Machine(AZ, 5, 4, rotors.values());
+        mach2.insertRotors(new String[] {"C", "VI", "VIII", "II", "V"});
+        mach2.setPlugboard(new Permutation("", AZ));
+        checkSeek(mach2, "AAAA", "QMDZ", "ZLEY", "MZEZ");
+    }
+
+    @Test
+    public void testConvertParallel() {
+        String word = "FROM HIS SHOULDER HIAWATHA TOOK THE CAMERA OF ROSEWOOD ";
+        String msg = word.repeat(5 * Machine.PARALLEL_CHUNK / word.length());
+        Machine mach = mach1();
+        mach.setPlugboard(new Permutation("(HQ) (EX) (IP) (TR) (BY)", AZ));
+        String expected = mach.convert(msg);
+        String after = settings(mach);
+        mach.setRotors(SETTING1);
+        assertEquals(expected, mach.convertParallel(msg));
+        assertEquals(after, settings(mach));
+    }
+
+    @Test
+    public void testCopy() {
+        Machine mach = mach1();
+        mach.setPlugboard(new Permutation("(HQ) (EX) (IP) (TR) (BY)", AZ));
+        Machine copy = mach.copy();
+        assertEquals("QVPQSOKOILPUBKJZPISFXDW",
+                copy.convert("FROMHISSHOULDERHIAWATHA"));
+        assertEquals(SETTING1, settings(mach));
+        assertEquals("QVPQSOKOILPUBKJZPISFXDW",
+                mach.convert("FROMHISSHOULDERHIAWATHA"));
+        assertEquals(settings(mach), settings(copy));
+    }
+
+    @Test
+    public void testTracers() {
+        String msg = "FROM HIS SHOULDER HIAWATHA";
+        RingBufferTracer ring = new RingBufferTracer(4);
+        Machine mach = new Machine(AZ, 5, 3, ROTORS.values(), ring);
+        mach.insertRotors(ROTORS1);
+        mach.setRotors(SETTING1);
+        mach.setPlugboard(new Permutation("(HQ) (EX) (IP) (TR) (BY)", AZ));
+        assertEquals("QVPQ SOK OILPUBKJ ZPISFXDW", mach.convert(msg));
+        assertEquals(23, ring.count());
+        assertEquals(4, ring.traces().size());
+        RingBufferTracer.Trace last = ring.traces().get(3);
+        assertEquals(AZ.toInt('A'), last.input());
+        assertEquals(AZ.toInt('W'), last.output());
+        assertEquals(2 * 4 + 3, last.path().length);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        mach = new Machine(AZ, 5, 3, ROTORS.values(),
+                           new VerboseTracer(new PrintStream(bytes, true)));
+        mach.insertRotors(ROTORS1);
+        mach.setRotors(SETTING1);
+        mach.setPlugboard(new Permutation("(HQ) (EX) (IP) (TR) (BY)", AZ));
+        mach.convert(msg);
+        String[] lines = bytes.toString().split(System.lineSeparator());
+        assertEquals(23, lines.length);
+        assertTrue(lines[0].startsWith("[AXLF] F -> F -> "));
+        for (int i = 0; i < 4; i += 1) {
+            assertEquals(lines[19 + i], ring.traces().get(i).toString());
+        }
+    }
+
+    @Test
+    public void testMetrics() {
+        String msg = "THEQUICKBROWNFOXJUMPSOVERTHELAZYDOG".repeat(40);
+        MachineMetrics engineMetrics = new MachineMetrics(5);
+        MachineMetrics tracedMetrics = new MachineMetrics(5);
+        Machine mach = mach1();
+        mach.setRotors("ADUQ");
+        mach.setMetrics(engineMetrics);
+        mach.convert(msg);
+        mach.convert(msg.toCharArray(), 0, 100, new char[100]);
+
+        RingBufferTracer ring = new RingBufferTracer(1);
+        Machine traced = new Machine(AZ, 5, 3, ROTORS.values(), ring);
+        traced.setMetrics(tracedMetrics);
+        traced.insertRotors(ROTORS1);
+        traced.setRotors("ADUQ");
+        traced.setPlugboard(new Permutation("", AZ));
+        traced.convert(msg + " " + msg.substring(0, 100));
+
+        assertEquals(msg.length() + 100,
+                     engineMetrics.getCharactersConverted());
+        assertEquals(2, engineMetrics.getConversions());
+        assertEquals(2, engineMetrics.getConversionNanos().get("count")
+                     .longValue());
+        assertEquals(msg.length() + 100, engineMetrics.getRotorAdvances()[4]);
+        assertTrue(engineMetrics.getDoubleSteps() > 0);
+        assertArrayEquals(tracedMetrics.getRotorAdvances(),
+                          engineMetrics.getRotorAdvances());
+        assertEquals(tracedMetrics.getDoubleSteps(),
+                     engineMetrics.getDoubleSteps());
+        assertEquals(1, tracedMetrics.getInsertRotorsNanos().get("count")
+                     .longValue());
+    }
+
+    @Test
+    public void testMetricsSetLater() {
+        String msg = "THEQUICKBROWNFOXJUMPSOVERTHELAZYDOG".repeat(40);
+        Machine mach = mach1();
+        mach.setRotors("ADUQ");
+        mach.convert(msg);
+        mach.convert(msg.toCharArray(), 0, 100, new char[100]);
+        byte[] bytes = msg.getBytes(StandardCharsets.US_ASCII);
+        mach.convert(bytes, 0, bytes.length, bytes);
+
+        MachineMetrics metrics = new MachineMetrics(5);
+        mach.setMetrics(metrics);
+        mach.convert(msg.substring(0, 10));
+        assertEquals(10, metrics.getCharactersConverted());
+        assertEquals(10, metrics.getRotorAdvances()[4]);
+        assertEquals(0, metrics.getRotorAdvances()[3]);
+        assertEquals(0, metrics.getDoubleSteps());
+    }
+}
@@ -0,0 +1,89 @@
+package enigma;
+
+import java.util.HashMap;
+
+/** Data and utilities shared by the Enigma unit tests.
+ *  @author P. N. Hilfinger
+ */
+class TestUtils {
+
+    /** The 26-letter upper-case English alphabet. */
+    static final String UPPER_STRING = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    /** The 26-letter upper-case English alphabet. */
+    static final Alphabet UPPER = new Alphabet(UPPER_STRING);
+
+    /** The rotors of the Naval Enigma, as maps from rotor names to
+     *  their permutations in cycle notation. */
+    static final HashMap<String, String> NAVALA = new HashMap<>();
+
+    /** The Naval rotors at settings A, B, and Z: maps from rotor names to
+     *  the images of A-Z under the rotor at that setting. */
+    static final HashMap<String, String>
+        NAVALA_MAP = new HashMap<>(),
+        NAVALB_MAP = new HashMap<>(),
+        NAVALZ_MAP = new HashMap<>();
+
+    static {
+        NAVALA.put("I", "(AELTPHQXRU) (BKNW) (CMOY) (DFG) (IV) (JZ) (S)");
+        NAVALA.put("II", "(FIXVYOMW) (CDKLHUP) (ESZ) (BJ) (GR) (NT) (A) (Q)");
+        NAVALA.put("III", "(ABDHPEJT) (CFLVMZOYQIRWUKXSG) (N)");
+        NAVALA.put("IV", "(AEPLIYWCOXMRFZBSTGJQNH) (DV) (KU)");
+        NAVALA.put("V", "(AVOLDRWFIUQ)(BZKSMNHYC) (EGTJPX)");
+        NAVALA.put("VI", "(AJQDVLEOZWIYTS) (CGMNHFUX) (BPRK)");
+        NAVALA.put("VII", "(ANOUPFRIMBZTLWKSVEGCJYDHXQ)");
+        NAVALA.put("VIII", "(AFLSETWUNDHOZVICQ) (BKJ) (GXY) (MPR)");
+        NAVALA.put("Beta", "(ALBEVFCYODJWUGNMQTZSKPR) (HIX)");
+        NAVALA.put("Gamma", "(AFNIRLBSQWVXGUZDKMTPCOYJHE)");
+        NAVALA.put("B", "(AE) (BN) (CK) (DQ) (FU) (GY) (HW) (IJ) (LO) (MP) "
+                   + "(RX) (SZ) (TV)");
+        NAVALA.put("C", "(AR) (BD) (CO) (EJ) (FN) (GT) (HK) (IV) (LM) (PW) "
+                   + "(QZ) (SX) (UY)");
+
+        NAVALA_MAP.put("I", "EKMFLGDQVZNTOWYHXUSPAIBRCJ");
+        NAVALA_MAP.put("II", "AJDKSIRUXBLHWTMCQGZNPYFVOE");
+        NAVALA_MAP.put("III", "BDFHJLCPRTXVZNYEIWGAKMUSQO");
+        NAVALA_MAP.put("IV", "ESOVPZJAYQUIRHXLNFTGKDCMWB");
+        NAVALA_MAP.put("V", "VZBRGITYUPSDNHLXAWMJQOFECK");
+        NAVALA_MAP.put("VI", "JPGVOUMFYQBENHZRDKASXLICTW");
+        NAVALA_MAP.put("VII", "NZJHGRCXMYSWBOUFAIVLPEKQDT");
+        NAVALA_MAP.put("VIII", "FKQHTLXOCBJSPDZRAMEWNIUYGV");
+        NAVALA_MAP.put("Beta", "LEYJVCNIXWPBQMDRTAKZGFUHOS");
+        NAVALA_MAP.put("Gamma", "FSOKANUERHMBTIYCWLQPZXVGJD");
+        NAVALA_MAP.put("B", "ENKQAUYWJICOPBLMDXZVFTHRGS");
+        NAVALA_MAP.put("C", "RDOBJNTKVEHMLFCWZAXGYIPSUQ");
+
+        NAVALB_MAP.put("I", "JLEKFCPUYMSNVXGWTROZHAQBID");
+        NAVALB_MAP.put("II", "ICJRHQTWAKGVSLBPFYMOXEUNDZ");
+        NAVALB_MAP.put("III", "CEGIKBOQSWUYMXDHVFZJLTRPNA");
+        NAVALB_MAP.put("IV", "RNUOYIZXPTHQGWKMESFJCBLVAD");
+        NAVALB_MAP.put("V", "YAQFHSXTORCMGKWZVLIPNEDBJU");
+        NAVALB_MAP.put("VI", "OFUNTLEXPADMGYQCJZRWKHBSVI");
+        NAVALB_MAP.put("VII", "YIGFQBWLXRVANTEZHUKODJPCSM");
+        NAVALB_MAP.put("VIII", "JPGSKWNBAIROCYQZLDVMHTXFUE");
+        NAVALB_MAP.put("Beta", "DXIUBMHWVOAPLCQSZJYFETGNRK");
+        NAVALB_MAP.put("Gamma", "RNJZMTDQGLASHXBVKPOYWUFICE");
+        NAVALB_MAP.put("B", "MJPZTXVIHBNOAKLCWYUESGQFRD");
+        NAVALB_MAP.put("C", "CNAIMSJUDGLKEBVYZWFXHORTPQ");
+
+        NAVALZ_MAP.put("I", "KFLNGMHERWAOUPXZIYVTQBJCSD");
+        NAVALZ_MAP.put("II", "FBKELTJSVYCMIXUNDRHAOQZGWP");
+        NAVALZ_MAP.put("III", "PCEGIKMDQSUYWAOZFJXHBLNVTR");
+        NAVALZ_MAP.put("IV", "CFTPWQAKBZRVJSIYMOGUHLEDNX");
+        NAVALZ_MAP.put("V", "LWACSHJUZVQTEOIMYBXNKRPGFD");
+        NAVALZ_MAP.put("VI", "XKQHWPVNGZRCFOIASELBTYMJDU");
+        NAVALZ_MAP.put("VII", "UOAKIHSDYNZTXCPVGBJWMQFLRE");
+        NAVALZ_MAP.put("VIII", "WGLRIUMYPDCKTQEASBNFXOJVZH");
+        NAVALZ_MAP.put("Beta", "TMFZKWDOJYXQCRNESUBLAHGVIP");
+        NAVALZ_MAP.put("Gamma", "EGTPLBOVFSINCUJZDXMRQAYWHK");
+        NAVALZ_MAP.put("B", "TFOLRBVZXKJDPQCMNEYAWGUISH");
+        NAVALZ_MAP.put("C", "RSEPCKOULWFINMGDXABYHZJQTV");
+    }
+
+    /** Return the message formed from TESTID, followed by a colon and the
+     *  result of formatting FORMAT and ARGS, as for String.format. */
+    static String msg(String testId, String format, Object... args) {
+        return testId + ": " + String.format(format, args);
+    }
+
+}
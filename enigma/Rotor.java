@@ -1,179 +0,0 @@
-package enigma;
-
-import static enigma.EnigmaException.*;
-
-/**
- * Superclass that represents a rotor in the enigma machine.
- *
- * @author Aishik Bhattacharyya
- */
-class Rotor {
-
-    /**
-     * A rotor named NAME whose permutation is given by PERM.
-     */
-    Rotor(String name, Permutation perm) {
-        _name = name;
-        _permutation = perm;
-        _pos = 'A';
-        _ringSetting = perm.alphabet().toChar(0);
-    }
-
-    /**
-     * Return my name.
-     */
-    String name() {
-        return _name;
-    }
-
-    /**
-     * Return my alphabet.
-     */
-    Alphabet alphabet() {
-        return _permutation.alphabet();
-    }
-
-    void setAlphabet(Alphabet a) {
-        _permutation.setAlphabet(a);
-    }
-
-    /**
-     * Return my permutation.
-     */
-    Permutation permutation() {
-        return _permutation;
-    }
-
-    /**
-     * Return the size of my alphabet.
-     */
-    int size() {
-        return _permutation.size();
-    }
-
-    /**
-     * Return true iff I have a ratchet and can move.
-     */
-    boolean rotates() {
-        return false;
-    }
-
-    /**
-     * Return true iff I reflect.
-     */
-    boolean reflecting() {
-        return false;
-    }
-
-    /**
-     * Return my current setting.
-     */
-    int setting() {
-        return alphabet().toInt(_pos);
-    }
-
-    /**
-     * Set setting() to POSN.
-     */
-    void set(int posn) {
-        int modded = (posn) % alphabet().size();
-        _pos = alphabet().toChar(modded);
-    }
-
-    /**
-     * Set setting() to character CPOSN.
-     */
-    void set(char cposn) {
-        set(alphabet().toInt(cposn));
-    }
-
-    /**
-     * Return the conversion of P (an integer in the range 0..size()-1)
-     * according to my permutation.
-     */
-    int convertForward(int p) {
-        int pos1 = (p + alphabet().toInt(_pos)
-                - alphabet().toInt(_ringSetting)) % alphabet().size();
-        int map = _permutation.permute(pos1);
-        int result = ((map - alphabet().toInt(this._pos)
-                + alphabet().toInt(_ringSetting)
-                + alphabet().size()) % alphabet().size());
-        if (Main.verbose()) {
-            System.err.printf("%c -> ", alphabet().toChar(result));
-        }
-        return result;
-    }
-
-    /**
-     * Return the conversion of E (an integer in the range 0..size()-1)
-     * according to the inverse of my permutation.
-     */
-    int convertBackward(int e) {
-        int temp = alphabet().toInt(_ringSetting);
-        int pos1 = (e + alphabet().toInt(_pos)
-                - alphabet().toInt(_ringSetting)) % alphabet().size();
-        int map = _permutation.invert(pos1);
-        int result = ((map - alphabet().toInt(this._pos)
-                + alphabet().size()
-                + alphabet().toInt(_ringSetting)) % alphabet().size());
-        if (Main.verbose()) {
-            System.err.printf("%c -> ", alphabet().toChar(result));
-        }
-        return result;
-    }
-
-    /**
-     * Returns the positions of the notches, as a string giving the letters
-     * on the ring at which they occur.
-     */
-    String notches() {
-        return "";
-    }
-
-    /**
-     * Returns true iff I am positioned to allow the rotor to my left
-     * to advance.
-     */
-    boolean atNotch() {
-        return notches().contains(String.valueOf(_pos));
-    }
-
-    /**
-     * Advance me one position, if possible. By default, does nothing.
-     */
-    void advance() {
-    }
-
-    @Override
-    public String toString() {
-        return "Rotor " + _name;
-    }
-
-    /**
-     * My name.
-     */
-    private final String _name;
-
-    /**
-     * The permutation implemented by this rotor in its 0 position.
-     */
-    private Permutation _permutation;
-
-    /**
-     * Position of rotor.
-     */
-    protected char _pos;
-
-    /**
-     * Ring setting of rotor.
-     */
-    private char _ringSetting;
-
-    /**
-     * Set ring setting.
-     * @param setting
-     */
-    public void setRings(char setting) {
-        _ringSetting = setting;
-    }
-}